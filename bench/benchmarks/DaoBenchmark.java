@@ -0,0 +1,167 @@
+package benchmarks;
+
+import business.RoomManagement;
+import core.entities.Guest;
+import core.entities.Room;
+import data.GuestDAO;
+import data.RoomDAO;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Hot paths of the DAOs and of RoomManagement on a synthetic data set. Sizes are JMH
+// parameters, e.g. ant bench -Dbench.args="DaoBenchmark -p rooms=1000 -p guests=1000000".
+//
+// The load benchmarks only check the files while they are unchanged since the last load, and
+// read the binary snapshots after a change; add -jvmArgsAppend -Droom.snapshot=false to
+// bench.args to measure parsing the text files.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    private static final int LOOKUP_KEYS = 4096;
+
+    @Param({"100", "1000"})
+    public int rooms;
+
+    @Param({"10000", "100000"})
+    public int guests;
+
+    private File directory;
+    private RoomDAO roomDAO;
+    private GuestDAO guestDAO;
+    private RoomManagement roomManagement;
+    private String[] guestIds;
+    private String[] roomIds;
+    private LocalDate[] startDates;
+    private Room revenueRoom;
+    private LocalDate revenueMonth;
+    private Guest[] savedVersions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("room-bench").toFile();
+        SyntheticData data = new SyntheticData(rooms, guests, 42);
+        data.writeTo(directory);
+        roomDAO = new RoomDAO(SyntheticData.roomFile(directory).getPath());
+        guestDAO = new GuestDAO(SyntheticData.guestFile(directory).getPath());
+        roomManagement = new RoomManagement(roomDAO, guestDAO);
+
+        // Lookup keys are drawn up front so the benchmarks measure only the call itself
+        Random random = new Random(7);
+        guestIds = new String[LOOKUP_KEYS];
+        roomIds = new String[LOOKUP_KEYS];
+        startDates = new LocalDate[LOOKUP_KEYS];
+        long bookedDays = data.getLastEndDate().toEpochDay() - data.getFirstStartDate().toEpochDay();
+        for (int i = 0; i < LOOKUP_KEYS; i++) {
+            guestIds[i] = SyntheticData.guestId(random.nextInt(guests));
+            roomIds[i] = SyntheticData.roomId(random.nextInt(rooms));
+            startDates[i] = data.getFirstStartDate().plusDays(random.nextInt((int) bookedDays));
+        }
+        revenueRoom = roomDAO.getRoomById(SyntheticData.roomId(0));
+        revenueMonth = data.getFirstStartDate().withDayOfMonth(1);
+
+        // saveGuestsListToFile alternates one guest between two versions, so every save has
+        // exactly one change to write
+        Guest guest = guestDAO.getGuestById(SyntheticData.guestId(0));
+        savedVersions = new Guest[]{guest, new Guest(guest.getNationalID(), guest.getFullName(),
+            guest.getBirthdate(), guest.getGender(), guest.getPhoneNumber(), guest.getDesiredRoomID(),
+            guest.getNumberOfRentalDays(), guest.getStartDate(), "Synthetic Update")};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        guestDAO.flush();
+        try (Stream<Path> files = Files.walk(directory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private int nextKey() {
+        next = (next + 1) & (LOOKUP_KEYS - 1);
+        return next;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public List<Room> roomDAOLoadData() throws Exception {
+        roomDAO.loadData();
+        return roomDAO.getRooms();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public List<Guest> guestDAOLoadData() throws Exception {
+        guestDAO.loadData();
+        return guestDAO.getGuests();
+    }
+
+    @Benchmark
+    public Guest getGuestById() throws Exception {
+        return guestDAO.getGuestById(guestIds[nextKey()]);
+    }
+
+    @Benchmark
+    public Room getRoomById() throws Exception {
+        return roomDAO.getRoomById(roomIds[nextKey()]);
+    }
+
+    @Benchmark
+    public boolean isRoomAvailable() throws Exception {
+        int key = nextKey();
+        return roomManagement.isRoomAvailable(roomIds[key], startDates[key], 3);
+    }
+
+    @Benchmark
+    public double calculateTotalRevenueOfRoomType() throws Exception {
+        return roomManagement.calculateTotalRevenueOfRoomType(SyntheticData.ROOM_TYPES[nextKey() & 3]);
+    }
+
+    @Benchmark
+    public double calculateMonthlyRevenueOfRoom() throws Exception {
+        return roomManagement.calculateMonthlyRevenueOfRoom(revenueRoom, revenueMonth);
+    }
+
+    // Time on the menu thread: the change log append itself runs on the write-behind thread
+    @Benchmark
+    public void saveGuestsListToFile() throws Exception {
+        guestDAO.updateGuest(savedVersions[nextKey() & 1]);
+        guestDAO.saveGuestsListToFile();
+    }
+
+    // Including the wait for the change log append to reach the disk
+    @Benchmark
+    public void saveGuestsListToFileAndFlush() throws Exception {
+        guestDAO.updateGuest(savedVersions[nextKey() & 1]);
+        guestDAO.saveGuestsListToFile();
+        guestDAO.flush();
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import common.env.Constants;
+import common.tools.DataValidate;
+import core.entities.Guest;
+import core.entities.Room;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Compares the validation the entity setters used to run (String.matches on every call,
+// numbers formatted to strings) with the precompiled and numeric checks, and measures the
+// resulting cost of building the Guest and Room entities every loaded line pays for.
+// Run with ant bench -Dbench.args=EntityConstructionBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityConstructionBenchmark {
+
+    private final LocalDate birthdate = LocalDate.of(2005, 3, 21);
+    private final LocalDate startDate = LocalDate.now().plusDays(30);
+
+    @Benchmark
+    public boolean guestChecksStringMatches() {
+        return legacyGuestChecks("123456789101", "Nguyen Duong Thuan", "0346427469", "R111", 2, "Ahuhu");
+    }
+
+    @Benchmark
+    public boolean guestChecksPrecompiled() {
+        return guestChecks("123456789101", "Nguyen Duong Thuan", "0346427469", "R111", 2, "Ahuhu");
+    }
+
+    @Benchmark
+    public boolean roomChecksStringMatches() {
+        return legacyRoomChecks(150.00, 4);
+    }
+
+    @Benchmark
+    public boolean roomChecksNumeric() {
+        return roomChecks(150.00, 4);
+    }
+
+    @Benchmark
+    public Guest newGuest() throws Exception {
+        return new Guest("123456789101", "Nguyen Duong Thuan", birthdate, "Male",
+                "0346427469", "R111", 2, startDate, "Ahuhu");
+    }
+
+    @Benchmark
+    public Room newRoom() throws Exception {
+        return new Room("R101", "Sunset Suite", "Deluxe", 150.00, 4, "Double bed, Sofa, TV, Balcony");
+    }
+
+    // The checks Guest and Room ran before patterns were precompiled
+    private static boolean legacyGuestChecks(String nationalID, String fullName, String phoneNumber,
+            String desiredRoomID, int numberOfRentalDays, String nameOfCoTenant) {
+        return nationalID.matches(Constants.NATIONAL_ID_PATTERN)
+                && fullName.matches(Constants.GUEST_NAME_PATTERN)
+                && phoneNumber.matches(Constants.GUEST_PHONE_PATTERN)
+                && desiredRoomID.matches(Constants.ROOM_ID_PATTERN)
+                && String.valueOf(numberOfRentalDays).matches(Constants.POSITIVE_NUMBER_PATTERN)
+                && nameOfCoTenant.matches(Constants.GUEST_NAME_CO_TENANT_PATTERN);
+    }
+
+    private static boolean guestChecks(String nationalID, String fullName, String phoneNumber,
+            String desiredRoomID, int numberOfRentalDays, String nameOfCoTenant) {
+        return DataValidate.checkStringWithFormat(nationalID, Constants.NATIONAL_ID_REGEX)
+                && DataValidate.checkStringWithFormat(fullName, Constants.GUEST_NAME_REGEX)
+                && DataValidate.checkStringWithFormat(phoneNumber, Constants.GUEST_PHONE_REGEX)
+                && DataValidate.checkStringWithFormat(desiredRoomID, Constants.ROOM_ID_REGEX)
+                && DataValidate.checkPositiveNumber(numberOfRentalDays)
+                && DataValidate.checkStringWithFormat(nameOfCoTenant, Constants.GUEST_NAME_CO_TENANT_REGEX);
+    }
+
+    private static boolean legacyRoomChecks(double dailyRate, int capacity) {
+        return String.valueOf(dailyRate).matches(Constants.POSITIVE_NUMBER_PATTERN)
+                && String.valueOf(capacity).matches(Constants.POSITIVE_NUMBER_PATTERN);
+    }
+
+    private static boolean roomChecks(double dailyRate, int capacity) {
+        return DataValidate.checkPositiveNumber(dailyRate) && DataValidate.checkPositiveNumber(capacity);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import common.env.Constants;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Random;
+
+// Writes a room file and a guest file in the formats RoomDAO and GuestDAO read, so that
+// benchmarks can run on any catalog and booking history size. Guests are spread round-robin
+// over the rooms and booked back to back from a month ahead, so every stay is valid and no
+// two overlap. The same seed gives the same files.
+public class SyntheticData {
+
+    public static final String[] ROOM_TYPES = {"Deluxe", "Standard", "Superior", "Suite"};
+    public static final int MAX_RENTAL_DAYS = 7;
+    // Room IDs run from R1000 to R9999 to fit the room ID pattern
+    public static final int MAX_ROOMS = 9000;
+
+    private static final String[] NAMES = {"Nguyen Van An", "Tran Thi Binh", "Le Hoang Cuong",
+        "Pham Minh Duc", "Hoang Thu Ha", "Vu Quoc Khanh", "Dang Ngoc Lan", "Bui Thanh Son"};
+    private static final String[] PHONE_PREFIXES = {"034", "056", "070", "081", "090"};
+
+    private final int roomCount;
+    private final int guestCount;
+    private final LocalDate firstStartDate;
+    private final Random random;
+
+    public SyntheticData(int roomCount, int guestCount, long seed) {
+        if (roomCount < 1 || roomCount > MAX_ROOMS) {
+            throw new IllegalArgumentException("Room count must be between 1 and " + MAX_ROOMS);
+        }
+        this.roomCount = roomCount;
+        this.guestCount = guestCount;
+        this.firstStartDate = LocalDate.now().plusDays(30);
+        this.random = new Random(seed);
+    }
+
+    // Creates rooms.txt and guests.txt in the directory
+    public void writeTo(File directory) throws IOException {
+        StringBuilder rooms = new StringBuilder();
+        for (int i = 0; i < roomCount; i++) {
+            rooms.append(roomId(i)).append(';')
+                    .append("Room ").append(i).append(';')
+                    .append(ROOM_TYPES[i % ROOM_TYPES.length]).append(';')
+                    .append(50 + random.nextInt(200)).append(".00;")
+                    .append(1 + random.nextInt(6)).append(';')
+                    .append("Double bed, TV").append('\n');
+        }
+        Files.write(roomFile(directory).toPath(), rooms.toString().getBytes(Charset.forName("utf-8")));
+
+        StringBuilder guests = new StringBuilder();
+        for (int i = 0; i < guestCount; i++) {
+            LocalDate startDate = firstStartDate.plusDays((long) (i / roomCount) * MAX_RENTAL_DAYS);
+            guests.append(guestId(i)).append(", ")
+                    .append(NAMES[random.nextInt(NAMES.length)]).append(", ")
+                    .append(LocalDate.of(1970 + random.nextInt(35), 1 + random.nextInt(12), 1 + random.nextInt(28))
+                            .format(Constants.DATE_FORMATTER)).append(", ")
+                    .append(random.nextBoolean() ? "Male" : "Female").append(", ")
+                    .append(PHONE_PREFIXES[random.nextInt(PHONE_PREFIXES.length)])
+                    .append(String.format("%07d", random.nextInt(10_000_000))).append(", ")
+                    .append(roomId(i % roomCount)).append(", ")
+                    .append(1 + random.nextInt(MAX_RENTAL_DAYS)).append(", ")
+                    .append(startDate.format(Constants.DATE_FORMATTER)).append(", ")
+                    .append("None").append('\n');
+        }
+        Files.write(guestFile(directory).toPath(), guests.toString().getBytes(Charset.forName("utf-8")));
+    }
+
+    public static File roomFile(File directory) {
+        return new File(directory, "rooms.txt");
+    }
+
+    public static File guestFile(File directory) {
+        return new File(directory, "guests.txt");
+    }
+
+    public static String roomId(int index) {
+        return "R" + (1000 + index);
+    }
+
+    public static String guestId(int index) {
+        return String.format("%012d", 100_000_000_000L + index);
+    }
+
+    public LocalDate getFirstStartDate() {
+        return firstStartDate;
+    }
+
+    // Day after the last booked stay of any room
+    public LocalDate getLastEndDate() {
+        return firstStartDate.plusDays((long) ((guestCount + roomCount - 1) / roomCount) * MAX_RENTAL_DAYS);
+    }
+}
@@ -0,0 +1,70 @@
+package business;
+
+import core.entities.Guest;
+import core.entities.Room;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a booking change made through BookingService. A rejected booking for a taken
+// room carries the room's next free windows and similar free rooms.
+public final class BookingResult {
+
+    public enum Status {
+        BOOKED, UPDATED, CANCELLED,
+        GUEST_EXISTS, GUEST_NOT_FOUND, ROOM_NOT_FOUND, ROOM_NOT_AVAILABLE, NOT_CANCELLABLE
+    }
+
+    private final Status status;
+    private final String message;
+    private final Guest guest;
+    private final List<LocalDate> freeWindows;
+    private final List<Room> alternativeRooms;
+
+    private BookingResult(Status status, String message, Guest guest, List<LocalDate> freeWindows,
+            List<Room> alternativeRooms) {
+        this.status = status;
+        this.message = message;
+        this.guest = guest;
+        this.freeWindows = freeWindows;
+        this.alternativeRooms = alternativeRooms;
+    }
+
+    static BookingResult success(Status status, String message, Guest guest) {
+        return new BookingResult(status, message, guest, Collections.emptyList(), Collections.emptyList());
+    }
+
+    static BookingResult failure(Status status, String message) {
+        return new BookingResult(status, message, null, Collections.emptyList(), Collections.emptyList());
+    }
+
+    static BookingResult unavailable(List<LocalDate> freeWindows, List<Room> alternativeRooms) {
+        return new BookingResult(Status.ROOM_NOT_AVAILABLE, "Room is not available for the requested dates", null,
+                Collections.unmodifiableList(freeWindows), Collections.unmodifiableList(alternativeRooms));
+    }
+
+    public boolean isSuccess() {
+        return status == Status.BOOKED || status == Status.UPDATED || status == Status.CANCELLED;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // The stored guest after a successful change
+    public Guest getGuest() {
+        return guest;
+    }
+
+    public List<LocalDate> getFreeWindows() {
+        return freeWindows;
+    }
+
+    public List<Room> getAlternativeRooms() {
+        return alternativeRooms;
+    }
+}
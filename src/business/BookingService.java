@@ -0,0 +1,244 @@
+package business;
+
+import core.entities.Guest;
+import core.entities.ImportResult;
+import core.entities.Room;
+import core.interfaces.IGuest;
+import core.interfaces.IRoom;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The room management operations without the console: every method takes its input as
+// parameters and returns data or a result object, and none reads from or prints to the
+// terminal. RoomManagement is the console front end on top of it; scripted drivers and other
+// front ends can call it directly.
+public class BookingService {
+
+    public static final int SUGGESTED_WINDOWS = 3;
+    public static final int SUGGESTED_ROOMS = 3;
+
+    private final IRoom roomDAO;
+    private final IGuest guestDAO;
+    private final OccupancyAnalytics occupancyAnalytics;
+
+    public BookingService(IRoom roomDAO, IGuest guestDAO) {
+        this.roomDAO = roomDAO;
+        this.guestDAO = guestDAO;
+        this.occupancyAnalytics = new OccupancyAnalytics(roomDAO, guestDAO);
+    }
+
+    public List<Room> getRooms() throws Exception {
+        return roomDAO.getRooms();
+    }
+
+    public Room findRoom(String roomId) throws Exception {
+        return roomDAO.getRoomById(roomId);
+    }
+
+    public Guest findGuest(String nationalID) throws Exception {
+        return guestDAO.getGuestById(nationalID);
+    }
+
+    public List<Guest> searchGuestsByName(String query, int limit) throws Exception {
+        return guestDAO.searchGuestsByName(query, limit);
+    }
+
+    public List<Guest> findGuestsByPhoneNumber(String phoneNumber) throws Exception {
+        return guestDAO.findGuestsByPhoneNumber(phoneNumber);
+    }
+
+    public List<Guest> findGuestsByRoom(String roomId) throws Exception {
+        return guestDAO.findGuestsByRoom(roomId);
+    }
+
+    public List<Guest> findArrivals(LocalDate fromDate, LocalDate toDate) throws Exception {
+        return guestDAO.findGuestsArrivingBetween(fromDate, toDate);
+    }
+
+    public boolean isRoomAvailable(String roomId, LocalDate startDate, int numberOfDays, String excludeGuestId) throws Exception {
+        Room room = roomDAO.getRoomById(roomId);
+        if (room == null) {
+            throw new Exception("Room not found!");
+        }
+
+        return !guestDAO.hasOverlappingStay(roomId, startDate, numberOfDays, excludeGuestId);
+    }
+
+    public BookingResult book(Guest guest) throws Exception {
+        if (guestDAO.getGuestById(guest.getNationalID()) != null) {
+            return BookingResult.failure(BookingResult.Status.GUEST_EXISTS, "Guest already exists");
+        }
+        if (roomDAO.getRoomById(guest.getDesiredRoomID()) == null) {
+            return BookingResult.failure(BookingResult.Status.ROOM_NOT_FOUND, "Room not found!");
+        }
+        // Checks availability and books in one step, so another session cannot take the room in between
+        if (!guestDAO.bookGuest(guest)) {
+            return unavailable(guest, null);
+        }
+        return BookingResult.success(BookingResult.Status.BOOKED, "Guest information added successfully", guest);
+    }
+
+    public BookingResult rebook(Guest updatedGuest) throws Exception {
+        if (guestDAO.getGuestById(updatedGuest.getNationalID()) == null) {
+            return guestNotFound(updatedGuest.getNationalID());
+        }
+        if (roomDAO.getRoomById(updatedGuest.getDesiredRoomID()) == null) {
+            return BookingResult.failure(BookingResult.Status.ROOM_NOT_FOUND, "Room not found!");
+        }
+        if (!guestDAO.rebookGuest(updatedGuest)) {
+            return unavailable(updatedGuest, updatedGuest.getNationalID());
+        }
+        return BookingResult.success(BookingResult.Status.UPDATED, "Guest information updated successfully", updatedGuest);
+    }
+
+    public boolean isCancellable(Guest guest) {
+        return guest.getStartDate().isAfter(LocalDate.now());
+    }
+
+    public BookingResult cancel(String nationalID) throws Exception {
+        Guest guest = guestDAO.getGuestById(nationalID);
+        if (guest == null) {
+            return guestNotFound(nationalID);
+        }
+        if (!isCancellable(guest)) {
+            return BookingResult.failure(BookingResult.Status.NOT_CANCELLABLE,
+                    "The room booking for this guest cannot be cancelled!");
+        }
+        guestDAO.removeGuest(guest);
+        return BookingResult.success(BookingResult.Status.CANCELLED,
+                "Booking details for ID '" + nationalID + "' have been successfully cancelled.", guest);
+    }
+
+    private static BookingResult guestNotFound(String nationalID) {
+        return BookingResult.failure(BookingResult.Status.GUEST_NOT_FOUND,
+                "No guest found with the requested ID '" + nationalID + "'");
+    }
+
+    private BookingResult unavailable(Guest guest, String excludeGuestId) throws Exception {
+        return BookingResult.unavailable(
+                guestDAO.findFreeWindows(guest.getDesiredRoomID(), guest.getStartDate(),
+                        guest.getNumberOfRentalDays(), SUGGESTED_WINDOWS, excludeGuestId),
+                recommendAlternativeRooms(guest.getDesiredRoomID(), guest.getStartDate(),
+                        guest.getNumberOfRentalDays(), excludeGuestId, SUGGESTED_ROOMS));
+    }
+
+    // Free rooms of the same type as the desired room, with at least its capacity, closest in
+    // daily rate first. Candidates come sorted by rate, so the search starts at the desired
+    // rate and widens to both sides until enough free rooms are found.
+    public List<Room> recommendAlternativeRooms(String roomId, LocalDate startDate, int numberOfDays,
+            String excludeGuestId, int limit) throws Exception {
+        Room desiredRoom = roomDAO.getRoomById(roomId);
+        List<Room> recommendations = new ArrayList<>(limit);
+        if (desiredRoom == null) {
+            return recommendations;
+        }
+        List<Room> candidates = roomDAO.getRoomsByTypeAndMinCapacity(desiredRoom.getRoomType(), desiredRoom.getCapacity());
+        double rate = desiredRoom.getDailyRate();
+        int right = firstRoomWithRateAtLeast(candidates, rate);
+        int left = right - 1;
+        while (recommendations.size() < limit && (left >= 0 || right < candidates.size())) {
+            Room candidate;
+            if (right >= candidates.size()
+                    || (left >= 0 && rate - candidates.get(left).getDailyRate() <= candidates.get(right).getDailyRate() - rate)) {
+                candidate = candidates.get(left--);
+            } else {
+                candidate = candidates.get(right++);
+            }
+            if (candidate != desiredRoom
+                    && !guestDAO.hasOverlappingStay(candidate.getRoomID(), startDate, numberOfDays, excludeGuestId)) {
+                recommendations.add(candidate);
+            }
+        }
+        return recommendations;
+    }
+
+    private static int firstRoomWithRateAtLeast(List<Room> rooms, double rate) {
+        int low = 0;
+        int high = rooms.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rooms.get(middle).getDailyRate() < rate) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Rooms free for every day of the inclusive range, with at least minCapacity places and,
+    // unless roomType is empty, of that type
+    public List<Room> findVacantRooms(LocalDate startDate, LocalDate endDate, int minCapacity, String roomType) throws Exception {
+        List<Room> vacantRooms = new ArrayList<>();
+        for (Room room : roomDAO.getRooms()) {
+            if (room.getCapacity() >= minCapacity
+                    && (roomType.isEmpty() || room.getRoomType().equalsIgnoreCase(roomType))
+                    && guestDAO.isRoomFree(room.getRoomID(), startDate, endDate)) {
+                vacantRooms.add(room);
+            }
+        }
+        return vacantRooms;
+    }
+
+    public double calculateMonthlyRevenueOfRoom(Room room, YearMonth month) throws Exception {
+        return guestDAO.getRentalDaysOfRoomInMonth(room.getRoomID(), month) * room.getDailyRate();
+    }
+
+    // Rooms with revenue in the month, in room order
+    public Map<Room, Double> getMonthlyRevenueByRoom(YearMonth month) throws Exception {
+        Map<Room, Double> monthlyRevenueByRoom = new LinkedHashMap<>();
+        for (Room room : roomDAO.getRooms()) {
+            double revenue = calculateMonthlyRevenueOfRoom(room, month);
+            if (revenue > 0) {
+                monthlyRevenueByRoom.put(room, revenue);
+            }
+        }
+        return monthlyRevenueByRoom;
+    }
+
+    // Every room of the type with its revenue, in room order
+    public Map<Room, Double> getRevenueByRoomOfType(String roomType) throws Exception {
+        Map<Room, Double> revenueByRoom = new LinkedHashMap<>();
+        for (Room room : roomDAO.getRooms()) {
+            if (room.getRoomType().equalsIgnoreCase(roomType)) {
+                revenueByRoom.put(room, guestDAO.getRentalDaysOfRoom(room.getRoomID()) * room.getDailyRate());
+            }
+        }
+        return revenueByRoom;
+    }
+
+    // Sums the per-room rental totals over the rooms of the type, priced at each room's rate
+    public double calculateTotalRevenueOfRoomType(String roomType) throws Exception {
+        double totalRevenue = 0;
+        for (double revenue : getRevenueByRoomOfType(roomType).values()) {
+            totalRevenue += revenue;
+        }
+        return totalRevenue;
+    }
+
+    public OccupancyAnalytics.Report analyzeOccupancy(LocalDate fromDate, LocalDate toDate) throws Exception {
+        return occupancyAnalytics.analyze(fromDate, toDate);
+    }
+
+    public ImportResult importReservations(String fileName) throws Exception {
+        Set<String> roomIds = new HashSet<>();
+        for (Room room : roomDAO.getRooms()) {
+            roomIds.add(room.getRoomID());
+        }
+        return guestDAO.importGuests(fileName, roomIds);
+    }
+
+    public void save() throws Exception {
+        guestDAO.saveGuestsListToFile();
+    }
+
+    public void flush() throws Exception {
+        guestDAO.flush();
+    }
+}
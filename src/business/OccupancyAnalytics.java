@@ -0,0 +1,161 @@
+package business;
+
+import core.entities.Guest;
+import core.entities.Room;
+import core.interfaces.IGuest;
+import core.interfaces.IRoom;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Occupancy, ADR and RevPAR over an arbitrary date range. Each stay is prorated day by day:
+// only the nights that fall inside the range are counted, whichever month the stay starts in.
+// All bookings are bucketed per room in one parallel pass; per-type figures are summed from
+// the per-room buckets.
+public class OccupancyAnalytics {
+
+    private final IRoom roomDAO;
+    private final IGuest guestDAO;
+
+    public OccupancyAnalytics(IRoom roomDAO, IGuest guestDAO) {
+        this.roomDAO = roomDAO;
+        this.guestDAO = guestDAO;
+    }
+
+    // Both dates are inclusive
+    public Report analyze(LocalDate fromDate, LocalDate toDate) throws Exception {
+        if (toDate.isBefore(fromDate)) {
+            throw new Exception("End date must not be before start date");
+        }
+        long rangeStart = fromDate.toEpochDay();
+        long rangeEnd = toDate.toEpochDay();
+        long daysInRange = rangeEnd - rangeStart + 1;
+
+        List<Room> rooms = roomDAO.getRooms();
+        Map<String, Integer> roomIndex = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            roomIndex.put(rooms.get(i).getRoomID().toUpperCase(), i);
+        }
+
+        long[] nightsByRoom = guestDAO.getGuests().parallelStream().collect(
+                () -> new long[rooms.size()],
+                (nights, guest) -> {
+                    Integer index = roomIndex.get(guest.getDesiredRoomID().toUpperCase());
+                    if (index != null) {
+                        nights[index] += nightsInRange(guest, rangeStart, rangeEnd);
+                    }
+                },
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++) {
+                        left[i] += right[i];
+                    }
+                });
+
+        Map<String, Stats> byRoom = new LinkedHashMap<>();
+        Map<String, Stats> byType = new LinkedHashMap<>();
+        Stats total = new Stats();
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            double revenue = nightsByRoom[i] * room.getDailyRate();
+            Stats roomStats = new Stats();
+            roomStats.add(nightsByRoom[i], daysInRange, revenue);
+            byRoom.put(room.getRoomID(), roomStats);
+            byType.computeIfAbsent(room.getRoomType(), type -> new Stats()).add(nightsByRoom[i], daysInRange, revenue);
+            total.add(nightsByRoom[i], daysInRange, revenue);
+        }
+        return new Report(fromDate, toDate, byRoom, byType, total);
+    }
+
+    private static long nightsInRange(Guest guest, long rangeStart, long rangeEnd) {
+        long stayStart = guest.getStartDate().toEpochDay();
+        long stayEnd = stayStart + guest.getNumberOfRentalDays() - 1;
+        long overlap = Math.min(stayEnd, rangeEnd) - Math.max(stayStart, rangeStart) + 1;
+        return Math.max(0, overlap);
+    }
+
+    public static final class Stats {
+
+        private long occupiedNights;
+        private long availableNights;
+        private double revenue;
+
+        private void add(long occupiedNights, long availableNights, double revenue) {
+            this.occupiedNights += occupiedNights;
+            this.availableNights += availableNights;
+            this.revenue += revenue;
+        }
+
+        public long getOccupiedNights() {
+            return occupiedNights;
+        }
+
+        public long getAvailableNights() {
+            return availableNights;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+
+        public double getOccupancyRate() {
+            return availableNights == 0 ? 0 : (double) occupiedNights / availableNights;
+        }
+
+        // Average daily rate: revenue per occupied night
+        public double getAverageDailyRate() {
+            return occupiedNights == 0 ? 0 : revenue / occupiedNights;
+        }
+
+        // Revenue per available room night
+        public double getRevenuePerAvailableRoom() {
+            return availableNights == 0 ? 0 : revenue / availableNights;
+        }
+    }
+
+    public static final class Report {
+
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final Map<String, Stats> byRoom;
+        private final Map<String, Stats> byType;
+        private final Stats total;
+
+        private Report(LocalDate fromDate, LocalDate toDate, Map<String, Stats> byRoom,
+                Map<String, Stats> byType, Stats total) {
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.byRoom = Collections.unmodifiableMap(byRoom);
+            this.byType = Collections.unmodifiableMap(byType);
+            this.total = total;
+        }
+
+        public LocalDate getFromDate() {
+            return fromDate;
+        }
+
+        public LocalDate getToDate() {
+            return toDate;
+        }
+
+        public long getDays() {
+            return ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        }
+
+        // Keyed by room ID, in room list order
+        public Map<String, Stats> getByRoom() {
+            return byRoom;
+        }
+
+        public Map<String, Stats> getByType() {
+            return byType;
+        }
+
+        public Stats getTotal() {
+            return total;
+        }
+    }
+}
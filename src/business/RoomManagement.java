@@ -1,81 +1,131 @@
 package business;
 
 import common.env.Constants;
+import common.metrics.Metrics;
 import common.tools.DataInput;
 import common.tools.DataUtils;
 import core.entities.Guest;
+import core.entities.ImportResult;
 import core.entities.Room;
 import core.interfaces.IGuest;
 import core.interfaces.IRoom;
+import java.io.File;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Supplier;
 import view.Menu;
 
+// Console front end: reads input through DataInput, runs the operation on BookingService
+// and prints the outcome.
 public class RoomManagement {
 
+    private static final int MAX_REPORTED_REJECTIONS = 20;
+    private static final int NAME_SEARCH_LIMIT = 20;
+    // Metric names of the menu actions, by menu number
+    private static final String[] MENU_METRICS = {"menu.invalid",
+        "menu.importRoomData", "menu.printRoomList", "menu.addGuest", "menu.updateGuestStayInformation",
+        "menu.searchGuest", "menu.deleteGuestReservationBeforeArrival", "menu.printListVacantRooms",
+        "menu.printMonthlyRevenueReport", "menu.printRevenueReportByRoomType", "menu.saveGuestInformation",
+        "menu.printTotalRevenueDetailsByRoomType", "menu.handleExit", "menu.printOccupancyReport",
+        "menu.searchVacantRooms", "menu.importGuestReservations", "menu.searchGuests"};
+
     private final IRoom roomDAO;
-    private final IGuest guestDAO;
+    private final BookingService bookingService;
+    // Messages from background work, such as room file reloads; null when there is none
+    private final Supplier<String> notices;
 
     public RoomManagement(IRoom roomDAO, IGuest guestDAO) {
+        this(roomDAO, guestDAO, () -> null);
+    }
+
+    public RoomManagement(IRoom roomDAO, IGuest guestDAO, Supplier<String> notices) {
         this.roomDAO = roomDAO;
-        this.guestDAO = guestDAO;
+        this.bookingService = new BookingService(roomDAO, guestDAO);
+        this.notices = notices;
     }
 
     public void processMenu() {
         try {
             do {
+                // Shown here, between actions, rather than printed when they happen
+                for (String notice = notices.get(); notice != null; notice = notices.get()) {
+                    System.out.println(notice);
+                }
                 Menu.print("******Room Management Module******"
                         + "|1.Import Room Data from Text File"
                         + "|2.Display Available Room List"
                         + "|3.Enter Guest Information"
                         + "|4.Update Guest Stay Information"
-                        + "|5.Search Guest by National ID"
+                        + "|5.Search Guest by National ID or Name"
                         + "|6.Delete Guest Reservation Before Arrival"
                         + "|7.List Vacant Rooms"
                         + "|8.Monthly Revenue Report"
                         + "|9.Revenue Report by Room Type"
                         + "|10.Save Guest Information"
                         + "|11.Revenue Report Details by Room Type"
-                        + "|12.Exit|Select:"
+                        + "|12.Exit"
+                        + "|13.Occupancy Report by Date Range"
+                        + "|14.Search Vacant Rooms"
+                        + "|15.Import Guest Reservations from Text File"
+                        + "|16.Search Guests by Phone, Room or Arrival Date"
+                        + "|Select:"
                 );
                 int choice = Menu.getUserChoice();
-                switch (choice) {
-                    case 1 ->
-                        importRoomData();
-                    case 2 ->
-                        printRoomList(roomDAO.getRooms());
-                    case 3 ->
-                        addGuest();
-                    case 4 ->
-                        updateGuestStayInformation();
-                    case 5 ->
-                        searchGuestByNationalID();
-                    case 6 ->
-                        deleteGuestReservationBeforeArrival();
-                    case 7 ->
-                        printListVacantRooms();
-                    case 8 ->
-                        printMonthlyRevenueReport();
-                    case 9 ->
-                        printRevenueReportByRoomType();
-                    case 10 ->
-                        saveGuestInformation();
-                    case 11 ->
-                        //This is new feature code 1-1 with lecture Kiemhh
-                        //them chức năng show doanh số theo loại phòng có in danh sách chi tiết các phòng và tổng tiền của từng loại phòng
-                        printTotalRevenueDetailsByRoomType();
-                    case 12 ->
-                        handleExit();
-                    default ->
-                        System.out.println("This function is not available");
+                String metric = MENU_METRICS[choice >= 0 && choice < MENU_METRICS.length ? choice : 0];
+                long start = Metrics.start();
+                try {
+                    switch (choice) {
+                        case 1 ->
+                            importRoomData();
+                        case 2 ->
+                            printRoomList(bookingService.getRooms());
+                        case 3 ->
+                            addGuest();
+                        case 4 ->
+                            updateGuestStayInformation();
+                        case 5 ->
+                            searchGuest();
+                        case 6 ->
+                            deleteGuestReservationBeforeArrival();
+                        case 7 ->
+                            printListVacantRooms();
+                        case 8 ->
+                            printMonthlyRevenueReport();
+                        case 9 ->
+                            printRevenueReportByRoomType();
+                        case 10 ->
+                            saveGuestInformation();
+                        case 11 ->
+                            //This is new feature code 1-1 with lecture Kiemhh
+                            //them chức năng show doanh số theo loại phòng có in danh sách chi tiết các phòng và tổng tiền của từng loại phòng
+                            printTotalRevenueDetailsByRoomType();
+                        case 12 ->
+                            handleExit();
+                        case 13 ->
+                            printOccupancyReport();
+                        case 14 ->
+                            searchVacantRooms();
+                        case 15 ->
+                            importGuestReservations();
+                        case 16 ->
+                            searchGuests();
+                        default ->
+                            System.out.println("This function is not available");
+                    }
+                } catch (Exception e) {
+                    Metrics.fail(metric + ".failed", e);
+                    throw e;
+                } finally {
+                    Metrics.record(metric, start);
                 }
             } while (true);
         } catch (Exception e) {
             //luu du lieu vao file truoc khi thoat va hien thi loi
             try {
-                guestDAO.saveGuestsListToFile();
+                bookingService.save();
             } catch (Exception ex) {
                 System.out.println("Error saving data: " + ex.getMessage());
             }
@@ -109,23 +159,23 @@ public class RoomManagement {
     }
 
     public boolean isRoomAvailable(String roomId, LocalDate startDate, int numberOfDays) throws Exception {
-        return isRoomAvailable(roomId, startDate, numberOfDays, null);
+        return bookingService.isRoomAvailable(roomId, startDate, numberOfDays, null);
     }
 
-    public boolean isRoomAvailable(String roomId, LocalDate startDate, int numberOfDays, String excludeGuestId) throws Exception {
-        Room room = roomDAO.getRoomById(roomId);
-        if (room == null) {
-            throw new Exception("Room not found!");
+    // Prints what a rejected booking suggests instead and fails with its message
+    private void rejectBooking(BookingResult result, int numberOfDays, String roomId) throws Exception {
+        if (!result.getFreeWindows().isEmpty()) {
+            System.out.format("Room %s is free for %d day(s) from:%n", roomId.toUpperCase(), numberOfDays);
+            for (LocalDate windowStart : result.getFreeWindows()) {
+                System.out.format("  %s - %s%n", windowStart.format(Constants.DATE_FORMATTER),
+                        windowStart.plusDays(numberOfDays - 1).format(Constants.DATE_FORMATTER));
+            }
         }
-
-        LocalDate endDate = startDate.plusDays(numberOfDays - 1);
-        return guestDAO.getGuests().stream()
-                .filter(guest -> guest.getDesiredRoomID().equalsIgnoreCase(roomId))
-                .filter(guest -> excludeGuestId == null || !guest.getNationalID().equalsIgnoreCase(excludeGuestId))
-                .noneMatch(guest -> {
-                    LocalDate guestEndDate = guest.getStartDate().plusDays(guest.getNumberOfRentalDays() - 1);
-                    return !(endDate.isBefore(guest.getStartDate()) || startDate.isAfter(guestEndDate));
-                });
+        if (!result.getAlternativeRooms().isEmpty()) {
+            System.out.println("Similar rooms free for the requested dates:");
+            printRoomList(result.getAlternativeRooms());
+        }
+        throw new Exception(result.getMessage());
     }
 
     public Guest inputGuest() throws Exception {
@@ -145,17 +195,11 @@ public class RoomManagement {
 
     public void addGuest() throws Exception {
         Guest guest = inputGuest();
-        if (guestDAO.getGuestById(guest.getNationalID()) != null) {
-            throw new Exception("Guest already exists");
-        }
-        if (roomDAO.getRoomById(guest.getDesiredRoomID()) == null) {
-            throw new Exception("Room not found!");
+        BookingResult result = bookingService.book(guest);
+        if (!result.isSuccess()) {
+            rejectBooking(result, guest.getNumberOfRentalDays(), guest.getDesiredRoomID());
         }
-        if (!isRoomAvailable(guest.getDesiredRoomID(), guest.getStartDate(), guest.getNumberOfRentalDays())) {
-            throw new Exception("Room is not available for the requested dates");
-        }
-        guestDAO.addGuest(guest);
-        System.out.println("Guest information added successfully");
+        System.out.println(result.getMessage());
     }
 
     public void printGuestInformationToUpdate(Guest guest) throws Exception {
@@ -177,7 +221,7 @@ public class RoomManagement {
 
     public void updateGuestStayInformation() throws Exception {
         String guestID = DataInput.getString("Enter guest ID:", Constants.NATIONAL_ID_PATTERN);
-        Guest guest = guestDAO.getGuestById(guestID);
+        Guest guest = bookingService.findGuest(guestID);
         if (guest == null) {
             System.out.println(Constants.SEPARATOR);
             System.out.println("No guest found with the requested ID '" + guestID + "'");
@@ -196,33 +240,26 @@ public class RoomManagement {
         String nameOfCoTenant = DataInput.getString("Enter name of co-tenant(Press enter if none):",
                 Constants.GUEST_NAME_CO_TENANT_PATTERN);
 
-        if (roomDAO.getRoomById(desiredRoomID) == null) {
+        if (bookingService.findRoom(desiredRoomID) == null) {
             throw new Exception("Room not found!");
         }
-        if (!isRoomAvailable(desiredRoomID, startDate, numberOfRentalDays, guest.getNationalID())) {
-            throw new Exception("Room is not available for the requested dates");
+        Guest updatedGuest = new Guest(guest.getNationalID(), fullName, birthdate, gender, phoneNumber,
+                desiredRoomID, numberOfRentalDays, startDate, nameOfCoTenant);
+        BookingResult result = bookingService.rebook(updatedGuest);
+        if (!result.isSuccess()) {
+            rejectBooking(result, numberOfRentalDays, desiredRoomID);
         }
-
-        guest.setFullName(fullName);
-        guest.setBirthdate(birthdate);
-        guest.setGender(gender);
-        guest.setPhoneNumber(phoneNumber);
-        guest.setDesiredRoomID(desiredRoomID);
-        guest.setNumberOfRentalDays(numberOfRentalDays);
-        guest.setStartDate(startDate);
-        guest.setNameOfCoTenant(nameOfCoTenant);
-        guestDAO.updateGuest(guest);
-        System.out.println("Guest information updated successfully");
+        System.out.println(result.getMessage());
     }
 
     public void printGuestInformation(Guest guest) throws Exception {
         if (guest == null) {
             throw new Exception("Printing guest information failed");
         }
-        if (roomDAO.getRoomById(guest.getDesiredRoomID()) == null) {
+        Room room = bookingService.findRoom(guest.getDesiredRoomID());
+        if (room == null) {
             throw new Exception("Please load room data first!");
         }
-        Room room = roomDAO.getRoomById(guest.getDesiredRoomID());
 
         System.out.println(Constants.SEPARATOR);
         System.out.println("Guest information [National ID: " + guest.getNationalID() + "]");
@@ -247,9 +284,18 @@ public class RoomManagement {
         System.out.println(Constants.SEPARATOR);
     }
 
-    public void searchGuestByNationalID() throws Exception {
-        String guestID = DataInput.getString("Enter guest ID:", Constants.NATIONAL_ID_PATTERN);
-        Guest guest = guestDAO.getGuestById(guestID);
+    // Twelve digits look up one guest by national ID; anything else searches the names
+    public void searchGuest() throws Exception {
+        String input = DataInput.getString("Enter guest ID or part of a name:", Constants.GUEST_SEARCH_PATTERN);
+        if (Constants.NATIONAL_ID_REGEX.matcher(input).matches()) {
+            searchGuestByNationalID(input);
+        } else {
+            printGuestList(bookingService.searchGuestsByName(input, NAME_SEARCH_LIMIT));
+        }
+    }
+
+    public void searchGuestByNationalID(String guestID) throws Exception {
+        Guest guest = bookingService.findGuest(guestID);
         if (guest == null) {
             System.out.println(Constants.SEPARATOR);
             System.out.println("No guest found with the requested ID '" + guestID + "'");
@@ -258,15 +304,57 @@ public class RoomManagement {
         printGuestInformation(guest);
     }
 
+    public void searchGuests() throws Exception {
+        int searchBy = DataInput.getIntegerNumber("Search by 1.Phone number 2.Room ID 3.Arrival dates:");
+        List<Guest> guests;
+        switch (searchBy) {
+            case 1 ->
+                guests = bookingService.findGuestsByPhoneNumber(
+                        DataInput.getString("Enter phone number:", Constants.GUEST_PHONE_PATTERN));
+            case 2 ->
+                guests = bookingService.findGuestsByRoom(
+                        DataInput.getString("Enter room ID:", Constants.ROOM_ID_PATTERN));
+            case 3 -> {
+                LocalDate fromDate = DataInput.getDate("Enter first arrival date (dd/mm/yyyy):");
+                LocalDate toDate = DataInput.getDate("Enter last arrival date (dd/mm/yyyy):");
+                guests = bookingService.findArrivals(fromDate, toDate);
+            }
+            default -> {
+                System.out.println("This search is not available");
+                return;
+            }
+        }
+        printGuestList(guests);
+    }
+
+    public void printGuestList(List<Guest> guestList) {
+        if (guestList.isEmpty()) {
+            System.out.println("No guest matches the search.");
+            return;
+        }
+        System.out.println(Constants.SEPARATOR);
+        System.out.format("%-12s | %-25s | %-10s | %-6s | %-10s | %4s | %s%n",
+                "National ID", "Full name", "Phone", "RoomID", "Check in", "Days", "Co-tenant");
+        System.out.println(Constants.SEPARATOR);
+        guestList.forEach(guest -> System.out.format(
+                "%-12s | %-25s | %-10s | %-6s | %-10s | %4d | %s%n",
+                guest.getNationalID(), guest.getFullName(), guest.getPhoneNumber(), guest.getDesiredRoomID(),
+                guest.getStartDate().format(Constants.DATE_FORMATTER), guest.getNumberOfRentalDays(),
+                guest.getNameOfCoTenant()
+        ));
+        System.out.println(Constants.SEPARATOR);
+        System.out.println(guestList.size() + " guests found.");
+    }
+
     public void deleteGuestReservationBeforeArrival() throws Exception {
         String guestID = DataInput.getString("Enter guest ID:", Constants.NATIONAL_ID_PATTERN);
-        Guest guest = guestDAO.getGuestById(guestID);
+        Guest guest = bookingService.findGuest(guestID);
         if (guest == null) {
             System.out.println(Constants.SEPARATOR);
             System.out.println("Booking details for ID '" + guestID + "' could not be found.");
             return;
         }
-        if (guest.getStartDate().isBefore(LocalDate.now()) || guest.getStartDate().isEqual(LocalDate.now())) {
+        if (!bookingService.isCancellable(guest)) {
             System.out.println(Constants.SEPARATOR);
             System.out.println("The room booking for this guest cannot be cancelled!");
             return;
@@ -275,29 +363,25 @@ public class RoomManagement {
         String confirm = DataInput.getString("Are you sure you want to cancel the booking for ID '"
                 + guestID + "'? (Y/N):", Constants.CONFIRM_PATTERN);
         if (confirm.equalsIgnoreCase("Y")) {
-            guestDAO.removeGuest(guest);
+            BookingResult result = bookingService.cancel(guestID);
+            if (!result.isSuccess()) {
+                throw new Exception(result.getMessage());
+            }
             System.out.println("... System message ...");
-            System.out.println("Booking details for ID '" + guestID + "' have been successfully cancelled.");
+            System.out.println(result.getMessage());
         } else {
             System.out.println("Cancelled request");
         }
     }
 
     public void printListVacantRooms() throws Exception {
-        List<Room> roomList = roomDAO.getRooms();
+        List<Room> roomList = bookingService.getRooms();
         if (roomList.isEmpty()) {
             System.out.println("Room list is currently empty, not loaded yet.");
             return;
         }
-        List<Room> vacantRoomList = roomList.stream()
-                .filter(room -> {
-                    try {
-                        return isRoomAvailable(room.getRoomID(), LocalDate.now(), 1);
-                    } catch (Exception e) {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        List<Room> vacantRoomList = bookingService.findVacantRooms(today, today, 0, "");
 
         if (vacantRoomList.isEmpty()) {
             System.out.println("All rooms are currently rented out — no availability at the moment!");
@@ -307,29 +391,35 @@ public class RoomManagement {
         }
     }
 
+    public void searchVacantRooms() throws Exception {
+        LocalDate startDate = DataInput.getDate("Enter start date (dd/mm/yyyy):");
+        LocalDate endDate = DataInput.getDate("Enter end date (dd/mm/yyyy):");
+        if (endDate.isBefore(startDate)) {
+            System.out.println("End date must not be before start date.");
+            return;
+        }
+        int minCapacity = DataInput.getIntegerNumber("Enter minimum capacity (blank for any):");
+        String roomType = DataInput.getString("Enter room type (blank for any):", Constants.ROOM_TYPE_PATTERN);
+
+        List<Room> vacantRooms = bookingService.findVacantRooms(startDate, endDate, minCapacity, roomType);
+        if (vacantRooms.isEmpty()) {
+            System.out.println("No room matches the search.");
+        } else {
+            System.out.format("Rooms free from %s to %s%n", startDate.format(Constants.DATE_FORMATTER),
+                    endDate.format(Constants.DATE_FORMATTER));
+            printRoomList(vacantRooms);
+        }
+    }
+
     public double calculateMonthlyRevenueOfRoom(Room room, LocalDate month) throws Exception {
-        return guestDAO.getGuests().stream()
-                .filter(guest -> guest.getDesiredRoomID().equalsIgnoreCase(room.getRoomID())
-                && guest.getStartDate().getMonth().equals(month.getMonth())
-                && guest.getStartDate().getYear() == month.getYear())
-                .mapToDouble(guest -> guest.getNumberOfRentalDays() * room.getDailyRate())
-                .sum();
+        return bookingService.calculateMonthlyRevenueOfRoom(room, YearMonth.from(month));
     }
 
     public void printMonthlyRevenueReport() throws Exception {
         LocalDate month = DataInput.getMonth("Enter month (mm/yyyy):");
-        List<Room> roomList = roomDAO.getRooms();
-        List<Room> monthlyRevenueRoomList = roomList.stream()
-                .filter(room -> {
-                    try {
-                        return calculateMonthlyRevenueOfRoom(room, month) > 0;
-                    } catch (Exception e) {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        Map<Room, Double> monthlyRevenueByRoom = bookingService.getMonthlyRevenueByRoom(YearMonth.from(month));
 
-        if (monthlyRevenueRoomList.isEmpty()) {
+        if (monthlyRevenueByRoom.isEmpty()) {
             System.out.println("There is no data on guests who have rented rooms");
             return;
         }
@@ -340,37 +430,14 @@ public class RoomManagement {
                 "RoomID", "Room Name", "Room type", "DailyRate", "Amount");
         System.out.println(String.join("", Collections.nCopies(68, "-")));
 
-        monthlyRevenueRoomList.forEach(room -> {
-            try {
-                System.out.format("  %-6s | %-15s | %-10s | %10s | %10s%n",
-                        room.getRoomID(), room.getRoomName(), room.getRoomType(),
-                        room.getDailyRate(), calculateMonthlyRevenueOfRoom(room, month));
-            } catch (Exception e) {
-                // Handle exception silently
-            }
-        });
+        monthlyRevenueByRoom.forEach((room, revenue) -> System.out.format("  %-6s | %-15s | %-10s | %10s | %10s%n",
+                room.getRoomID(), room.getRoomName(), room.getRoomType(),
+                room.getDailyRate(), revenue));
         System.out.println(String.join("", Collections.nCopies(68, "-")));
     }
 
     public double calculateTotalRevenueOfRoomType(String roomType) throws Exception {
-        return guestDAO.getGuests().stream()
-                .filter(guest -> {
-                    try {
-                        Room room = roomDAO.getRoomById(guest.getDesiredRoomID());
-                        return room != null && room.getRoomType().equalsIgnoreCase(roomType);
-                    } catch (Exception e) {
-                        return false;
-                    }
-                })
-                .mapToDouble(guest -> {
-                    try {
-                        Room room = roomDAO.getRoomById(guest.getDesiredRoomID());
-                        return guest.getNumberOfRentalDays() * room.getDailyRate();
-                    } catch (Exception e) {
-                        return 0;
-                    }
-                })
-                .sum();
+        return bookingService.calculateTotalRevenueOfRoomType(roomType);
     }
 
     public void printRevenueReportByRoomType() throws Exception {
@@ -388,10 +455,8 @@ public class RoomManagement {
 
     public void printTotalRevenueDetailsByRoomType() throws Exception {
         String roomTypeRequest = DataInput.getString("Enter room type:", Constants.ROOM_TYPE_PATTERN);
-        List<Room> rooms = roomDAO.getRooms().stream()
-                .filter(room -> room.getRoomType().equalsIgnoreCase(roomTypeRequest))
-                .collect(Collectors.toList());
-        if (rooms.isEmpty()) {
+        Map<Room, Double> revenueByRoom = bookingService.getRevenueByRoomOfType(roomTypeRequest);
+        if (revenueByRoom.isEmpty()) {
             System.out.println("No rooms found for the specified room type.");
             return;
         }
@@ -401,25 +466,77 @@ public class RoomManagement {
         System.out.format("  %-6s | %-20s | %-10s | %10s%n", "RoomID", "Room Name", "Daily Rate", "Amount");
         System.out.println(String.join("", Collections.nCopies(60, "-")));
 
-        for (Room room : rooms) {
-            double revenue = room.getDailyRate() * guestDAO.getGuests().stream()
-                    .filter(guest -> guest.getDesiredRoomID().equalsIgnoreCase(room.getRoomID()))
-                    .mapToDouble(Guest::getNumberOfRentalDays)
-                    .sum();
-            // totalRevenue += revenue;
+        double totalRevenue = 0;
+        for (Map.Entry<Room, Double> entry : revenueByRoom.entrySet()) {
+            Room room = entry.getKey();
+            double revenue = entry.getValue();
+            totalRevenue += revenue;
             System.out.format("  %-6s | %-20s | %10s | %10s%n",
                     room.getRoomID(), room.getRoomName(), room.getDailyRate(), revenue);
         }
         System.out.println(String.join("", Collections.nCopies(60, "-")));
-        double totalRevenue = calculateTotalRevenueOfRoomType(roomTypeRequest);
         System.out.format("  Total revenue for room type '%s': %s%n",
                 roomTypeRequest.toUpperCase(), Constants.CURRENCY_FORMATTER.format(totalRevenue) + "$");
         System.out.println(String.join("", Collections.nCopies(60, "-")));
 
     }
 
+    public void printOccupancyReport() throws Exception {
+        LocalDate fromDate = DataInput.getDate("Enter start date (dd/mm/yyyy):");
+        LocalDate toDate = DataInput.getDate("Enter end date (dd/mm/yyyy):");
+        if (toDate.isBefore(fromDate)) {
+            System.out.println("End date must not be before start date.");
+            return;
+        }
+        OccupancyAnalytics.Report report = bookingService.analyzeOccupancy(fromDate, toDate);
+        if (report.getByRoom().isEmpty()) {
+            System.out.println("No rooms found.");
+            return;
+        }
+
+        System.out.format("Occupancy Report - %s to %s (%d days)%n", fromDate.format(Constants.DATE_FORMATTER),
+                toDate.format(Constants.DATE_FORMATTER), report.getDays());
+        System.out.println(String.join("", Collections.nCopies(72, "-")));
+        System.out.format("  %-10s | %8s | %10s | %10s | %10s | %12s%n",
+                "Room type", "Nights", "Occupancy", "ADR", "RevPAR", "Revenue");
+        System.out.println(String.join("", Collections.nCopies(72, "-")));
+        report.getByType().forEach((type, stats) -> printOccupancyRow(type, stats));
+        System.out.println(String.join("", Collections.nCopies(72, "-")));
+        printOccupancyRow("Total", report.getTotal());
+        System.out.println(String.join("", Collections.nCopies(72, "-")));
+        System.out.format("  %-10s | %8s | %10s | %10s | %10s | %12s%n",
+                "RoomID", "Nights", "Occupancy", "ADR", "RevPAR", "Revenue");
+        System.out.println(String.join("", Collections.nCopies(72, "-")));
+        report.getByRoom().forEach((roomId, stats) -> printOccupancyRow(roomId, stats));
+        System.out.println(String.join("", Collections.nCopies(72, "-")));
+    }
+
+    private void printOccupancyRow(String label, OccupancyAnalytics.Stats stats) {
+        System.out.format("  %-10s | %8d | %9.1f%% | %10.2f | %10.2f | %12s%n",
+                label, stats.getOccupiedNights(), stats.getOccupancyRate() * 100,
+                stats.getAverageDailyRate(), stats.getRevenuePerAvailableRoom(),
+                Constants.CURRENCY_FORMATTER.format(stats.getRevenue()));
+    }
+
+    public void importGuestReservations() throws Exception {
+        String fileName = DataInput.getString("Enter reservation file path:");
+        if (!new File(fileName).isFile()) {
+            System.out.println("File not found: " + fileName);
+            return;
+        }
+        ImportResult result = bookingService.importReservations(fileName);
+        System.out.println(result.getImportedCount() + " reservations imported.");
+        System.out.println(result.getRejectedCount() + " entries rejected.");
+        result.getRejections().entrySet().stream()
+                .limit(MAX_REPORTED_REJECTIONS)
+                .forEach(rejection -> System.out.println("Line " + rejection.getKey() + ": " + rejection.getValue()));
+        if (result.getRejectedCount() > MAX_REPORTED_REJECTIONS) {
+            System.out.println("... " + (result.getRejectedCount() - MAX_REPORTED_REJECTIONS) + " more.");
+        }
+    }
+
     public void saveGuestInformation() throws Exception {
-        guestDAO.saveGuestsListToFile();
+        bookingService.save();
         System.out.println("Guest information saved to file successfully");
     }
 
@@ -428,6 +545,8 @@ public class RoomManagement {
         if (confirm.equalsIgnoreCase("Y")) {
             saveGuestInformation();
         }
+        // Saves are written in the background; wait for them before the JVM stops
+        bookingService.flush();
         System.out.println("Goodbye!");
         System.exit(0);
     }
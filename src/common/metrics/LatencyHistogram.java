@@ -0,0 +1,96 @@
+package common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram in nanoseconds. Each power of two is split into four buckets,
+// so a percentile is reported as the upper bound of its bucket, within 25% of the real value.
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKET_COUNT = 64 * SUB_BUCKETS;
+
+    private final AtomicLongArray BUCKETS = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder COUNT = new LongAdder();
+    private final LongAdder TOTAL_NANOS = new LongAdder();
+    private final AtomicLong MAX_NANOS = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        BUCKETS.incrementAndGet(bucketOf(nanos));
+        COUNT.increment();
+        TOTAL_NANOS.add(nanos);
+        long max = MAX_NANOS.get();
+        while (nanos > max && !MAX_NANOS.compareAndSet(max, nanos)) {
+            max = MAX_NANOS.get();
+        }
+    }
+
+    public long getCount() {
+        return COUNT.sum();
+    }
+
+    public long getMeanNanos() {
+        long count = COUNT.sum();
+        return count == 0 ? 0 : TOTAL_NANOS.sum() / count;
+    }
+
+    public long getMaxNanos() {
+        return MAX_NANOS.get();
+    }
+
+    // Upper bound of the bucket holding the given percentile, capped at the largest value seen
+    public long getPercentileNanos(double percent) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = BUCKETS.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), MAX_NANOS.get());
+            }
+        }
+        return MAX_NANOS.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            BUCKETS.set(i, 0);
+        }
+        COUNT.reset();
+        TOTAL_NANOS.reset();
+        MAX_NANOS.set(0);
+    }
+
+    // Values below 4 get a bucket each; above that, the two bits after the leading one pick
+    // the quarter of the power of two
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int quarter = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return (exponent - 1) * SUB_BUCKETS + quarter;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + 1;
+        long width = 1L << (exponent - 2);
+        long lower = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+        return lower + width - 1;
+    }
+}
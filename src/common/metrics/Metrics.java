@@ -0,0 +1,216 @@
+package common.metrics;
+
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+// Process-wide registry of operation latencies, counters and gauges.
+//
+// Off unless the JVM runs with -Dmetrics.enabled=true. ENABLED is a constant, so when it is
+// false every call below returns before touching the registry and the JIT drops the call.
+// When on, install() publishes the registry as an MXBean and, every metrics.dump.interval
+// seconds (60 by default, 0 to turn off), appends a text report to metrics.dump.file or,
+// when that is not set, to standard error.
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("metrics.enabled");
+    public static final String OBJECT_NAME = "roommanagement:type=Metrics";
+
+    private static final long DUMP_INTERVAL_SECONDS = Long.getLong("metrics.dump.interval", 60);
+    private static final String DUMP_FILE = System.getProperty("metrics.dump.file");
+    private static final DateTimeFormatter DUMP_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final Map<String, LatencyHistogram> LATENCIES = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+    private static boolean installed;
+
+    private Metrics() {
+    }
+
+    @FunctionalInterface
+    public interface Gauge {
+
+        long value() throws Exception;
+    }
+
+    // Registers the MXBean and starts the periodic dump; later calls do nothing
+    public static synchronized void install() {
+        if (!ENABLED || installed) {
+            return;
+        }
+        installed = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Registry(), new ObjectName(OBJECT_NAME));
+        } catch (Exception e) {
+            System.err.println("Metrics MBean not registered: " + e.getMessage());
+        }
+        if (DUMP_INTERVAL_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(Metrics::dump, DUMP_INTERVAL_SECONDS, DUMP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // Start time for record(), or 0 when metrics are off
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void record(String operation, long startNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        LATENCIES.computeIfAbsent(operation, k -> new LatencyHistogram()).record(elapsed);
+    }
+
+    public static void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public static void add(String counter, long amount) {
+        if (!ENABLED || amount == 0) {
+            return;
+        }
+        COUNTERS.computeIfAbsent(counter, k -> new LongAdder()).add(amount);
+    }
+
+    // Counts a failure under prefix.<reason>, where the reason is the message up to its first
+    // colon or digit, so "Duplicate room ID found: R101" and "...: R102" share one counter
+    public static void fail(String prefix, Exception e) {
+        if (!ENABLED) {
+            return;
+        }
+        increment(prefix + "." + reasonOf(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+    }
+
+    public static void fail(String prefix, String message) {
+        if (!ENABLED) {
+            return;
+        }
+        increment(prefix + "." + reasonOf(message == null ? "Unknown" : message));
+    }
+
+    // Replaces any gauge of the same name, so a reloaded DAO can register itself again
+    public static void gauge(String name, Gauge gauge) {
+        if (!ENABLED) {
+            return;
+        }
+        GAUGES.put(name, gauge);
+    }
+
+    static String reasonOf(String message) {
+        int end = 0;
+        while (end < message.length() && message.charAt(end) != ':' && !Character.isDigit(message.charAt(end))) {
+            end++;
+        }
+        String reason = message.substring(0, end).trim();
+        if (reason.endsWith(".") || reason.endsWith("!")) {
+            reason = reason.substring(0, reason.length() - 1);
+        }
+        return reason.isEmpty() ? "Unknown" : reason;
+    }
+
+    public static Map<String, Long> getCounters() {
+        Map<String, Long> counters = new TreeMap<>();
+        COUNTERS.forEach((name, value) -> counters.put(name, value.sum()));
+        return counters;
+    }
+
+    public static Map<String, Long> getGauges() {
+        Map<String, Long> gauges = new TreeMap<>();
+        GAUGES.forEach((name, gauge) -> {
+            try {
+                gauges.put(name, gauge.value());
+            } catch (Exception e) {
+                gauges.put(name, -1L);
+            }
+        });
+        return gauges;
+    }
+
+    public static Map<String, LatencyHistogram> getLatencies() {
+        return new TreeMap<>(LATENCIES);
+    }
+
+    public static void reset() {
+        LATENCIES.values().forEach(LatencyHistogram::reset);
+        COUNTERS.values().forEach(LongAdder::reset);
+    }
+
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Metrics at ").append(LocalDateTime.now().format(DUMP_TIME_FORMATTER)).append('\n');
+        report.append(String.format("  %-40s | %8s | %10s | %10s | %10s | %10s | %10s%n",
+                "Operation", "Count", "Mean (us)", "p50 (us)", "p95 (us)", "p99 (us)", "Max (us)"));
+        getLatencies().forEach((operation, histogram) -> report.append(String.format(
+                "  %-40s | %8d | %10.1f | %10.1f | %10.1f | %10.1f | %10.1f%n", operation, histogram.getCount(),
+                histogram.getMeanNanos() / 1e3, histogram.getPercentileNanos(50) / 1e3,
+                histogram.getPercentileNanos(95) / 1e3, histogram.getPercentileNanos(99) / 1e3,
+                histogram.getMaxNanos() / 1e3)));
+        getCounters().forEach((name, value) -> report.append(String.format("  %-40s = %d%n", name, value)));
+        getGauges().forEach((name, value) -> report.append(String.format("  %-40s = %d%n", name, value)));
+        return report.toString();
+    }
+
+    private static void dump() {
+        String report = report();
+        if (DUMP_FILE == null) {
+            System.err.print(report);
+            return;
+        }
+        try (PrintWriter writer = new PrintWriter(new FileWriter(DUMP_FILE, true))) {
+            writer.print(report);
+        } catch (Exception e) {
+            System.err.println("Metrics dump failed: " + e.getMessage());
+        }
+    }
+
+    private static final class Registry implements MetricsMXBean {
+
+        @Override
+        public Map<String, Long> getCounters() {
+            return Metrics.getCounters();
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return Metrics.getGauges();
+        }
+
+        @Override
+        public Map<String, String> getLatencies() {
+            Map<String, String> latencies = new TreeMap<>();
+            Metrics.getLatencies().forEach((operation, histogram) -> latencies.put(operation, String.format(
+                    "count=%d, mean=%.1f, p50=%.1f, p95=%.1f, p99=%.1f, max=%.1f", histogram.getCount(),
+                    histogram.getMeanNanos() / 1e3, histogram.getPercentileNanos(50) / 1e3,
+                    histogram.getPercentileNanos(95) / 1e3, histogram.getPercentileNanos(99) / 1e3,
+                    histogram.getMaxNanos() / 1e3)));
+            return latencies;
+        }
+
+        @Override
+        public String getReport() {
+            return Metrics.report();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package common.metrics;
+
+import java.util.Map;
+
+// Management view of the Metrics registry, registered as roommanagement:type=Metrics
+public interface MetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    // Operation -> "count, mean, p50, p95, p99, max" with times in microseconds
+    Map<String, String> getLatencies();
+
+    String getReport();
+
+    void reset();
+}
@@ -1,9 +1,13 @@
 package common.tools;
 
+import java.util.regex.Pattern;
+
 public class DataUtils {
 
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
     public static String toTitleCase(String str) {
-        str = str.toLowerCase().trim().replaceAll("\\s+", " ");
+        str = WHITESPACES.matcher(str.toLowerCase().trim()).replaceAll(" ");
         String[] words = str.split(" ");
         for (int i = 0; i < words.length; i++) {
             words[i] = words[i].substring(0, 1).toUpperCase() + words[i].substring(1);
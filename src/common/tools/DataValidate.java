@@ -1,15 +1,38 @@
 package common.tools;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class DataValidate {
 
+    // String.matches compiles its regex on every call; patterns are compiled once here
+    // and shared, which is safe because Pattern is immutable.
+    private static final Map<String, Pattern> COMPILED_PATTERNS = new ConcurrentHashMap<>();
+
     public static boolean checkStringEmpty(String value) {
         return value.isEmpty();
     }
 
     public static boolean checkStringWithFormat(String value, String pattern) {
-        return value.matches(pattern);
+        return checkStringWithFormat(value, compile(pattern));
+    }
+
+    public static boolean checkStringWithFormat(String value, Pattern pattern) {
+        return pattern.matcher(value).matches();
+    }
+
+    public static Pattern compile(String pattern) {
+        return COMPILED_PATTERNS.computeIfAbsent(pattern, Pattern::compile);
+    }
+
+    public static boolean checkPositiveNumber(int value) {
+        return value > 0;
+    }
+
+    public static boolean checkPositiveNumber(double value) {
+        return value > 0 && !Double.isInfinite(value);
     }
 
     public static boolean checkMatchCode(String value, List<String> pattern) {
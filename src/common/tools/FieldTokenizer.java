@@ -0,0 +1,151 @@
+package common.tools;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+public final class FieldTokenizer {
+
+    private final char delimiter;
+    private String line;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+
+    public FieldTokenizer(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    // Splits the line into trimmed [start, end) ranges without copying any characters.
+    // The tokenizer is reused line after line, so it must not be shared between threads.
+    public FieldTokenizer reset(String line) {
+        this.line = line;
+        this.count = 0;
+        int length = line.length();
+        int fieldStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == delimiter) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        return this;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String getString(int index) {
+        checkIndex(index);
+        return starts[index] == ends[index] ? "" : line.substring(starts[index], ends[index]);
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return decodeInt(line, starts[index], ends[index]);
+    }
+
+    public double getDouble(int index) {
+        return Double.parseDouble(getString(index));
+    }
+
+    public LocalDate getDate(int index) {
+        checkIndex(index);
+        return decodeDate(line, starts[index], ends[index]);
+    }
+
+    public static int decodeInt(CharSequence text, int from, int to) {
+        if (from >= to) {
+            throw new NumberFormatException("For input string: \"\"");
+        }
+        boolean negative = false;
+        int i = from;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i == to) {
+                throw invalidNumber(text, from, to);
+            }
+        }
+        // Accumulate as a negative number so that Integer.MIN_VALUE is representable
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < limit / 10) {
+                throw invalidNumber(text, from, to);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalidNumber(text, from, to);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    // Decodes dd/MM/yyyy the way DateTimeFormatter.ofPattern("dd/MM/yyyy") does with its
+    // default smart resolver: a day of 29-31 past the end of the month is clamped to the
+    // last day of that month.
+    public static LocalDate decodeDate(CharSequence text, int from, int to) {
+        if (to - from != 10 || text.charAt(from + 2) != '/' || text.charAt(from + 5) != '/') {
+            throw invalidDate(text, from, to);
+        }
+        int day = digits(text, from, from + 2);
+        int month = digits(text, from + 3, from + 5);
+        int year = digits(text, from + 6, from + 10);
+        if (day < 1 || day > 31 || month < 1 || month > 12 || year < 0) {
+            throw invalidDate(text, from, to);
+        }
+        LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+        return firstOfMonth.withDayOfMonth(Math.min(day, firstOfMonth.lengthOfMonth()));
+    }
+
+    private static int digits(CharSequence text, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private void addField(int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (count == starts.length) {
+            int[] newStarts = new int[count * 2];
+            int[] newEnds = new int[count * 2];
+            System.arraycopy(starts, 0, newStarts, 0, count);
+            System.arraycopy(ends, 0, newEnds, 0, count);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[count] = from;
+        ends[count] = to;
+        count++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("Missing field data.");
+        }
+    }
+
+    private static NumberFormatException invalidNumber(CharSequence text, int from, int to) {
+        return new NumberFormatException("For input string: \"" + text.subSequence(from, to) + "\"");
+    }
+
+    private static DateTimeParseException invalidDate(CharSequence text, int from, int to) {
+        String value = text.subSequence(from, to).toString();
+        return new DateTimeParseException("Text '" + value + "' could not be parsed", value, 0);
+    }
+}
@@ -1,20 +1,48 @@
 package controllers;
 
 import common.env.Constants;
+import common.metrics.Metrics;
 import core.interfaces.IGuest;
 import core.interfaces.IRoom;
-import data.GuestDAO;
+import data.ColumnarGuestDAO;
+import data.ConcurrentGuestDAO;
+import data.MeteredGuestDAO;
+import data.MeteredRoomDAO;
 import data.RoomDAO;
+import data.RoomFileWatcher;
+import java.io.IOException;
+import java.util.function.Supplier;
 import view.Menu;
 
 public class Program {
 
     public static void main(String[] args) {
+        Metrics.install();
         try {
+            // Created once: the DAOs read their files on first use, and reopening the menu
+            // keeps what they have loaded
+            RoomDAO roomDAO = new RoomDAO(Constants.ACTIVE_ROOM_FILE);
+            RoomFileWatcher watcher = null;
+            if (RoomFileWatcher.ENABLED) {
+                try {
+                    watcher = new RoomFileWatcher(roomDAO, Constants.ACTIVE_ROOM_FILE);
+                    watcher.start();
+                } catch (IOException e) {
+                    System.out.println("Room file changes will not be picked up: " + e.getMessage());
+                }
+            }
+            // Reload outcomes are shown by the menu between actions
+            Supplier<String> roomFileReports = watcher == null ? () -> null : watcher::pollReport;
+            IRoom roomService = roomDAO;
+            IGuest guestService = ColumnarGuestDAO.SELECTED
+                    ? new ColumnarGuestDAO(Constants.GUEST_FILE)
+                    : new ConcurrentGuestDAO(Constants.GUEST_FILE);
+            if (Metrics.ENABLED) {
+                roomService = new MeteredRoomDAO(roomService);
+                guestService = new MeteredGuestDAO(guestService);
+            }
             while (true) {
-                IRoom roomService = new RoomDAO(Constants.ACTIVE_ROOM_FILE);
-                IGuest guestService = new GuestDAO(Constants.GUEST_FILE);
-                Menu.manageRoom(roomService, guestService);
+                Menu.manageRoom(roomService, guestService, roomFileReports);
             }
         } catch (Exception e) {
             System.out.println(e.getMessage());
@@ -0,0 +1,264 @@
+package controllers;
+
+import business.BookingService;
+import common.env.Constants;
+import common.metrics.Metrics;
+import core.entities.Room;
+import core.interfaces.IGuest;
+import core.interfaces.IRoom;
+import data.ColumnarGuestDAO;
+import data.ConcurrentGuestDAO;
+import data.FileManager;
+import data.GuestDAO;
+import data.MeteredGuestDAO;
+import data.MeteredRoomDAO;
+import data.RoomDAO;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Replays a scripted workload against BookingService and reports throughput and latency
+// percentiles per command.
+//
+// Usage: WorkloadDriver <room file> <guest file> <script file> [threads]
+//
+// One command per line; blank lines and lines starting with # are skipped:
+//   BOOK <guest line>            add a booking (guest file format)
+//   REBOOK <guest line>          change the stay of an existing guest
+//   LOOKUP <national ID>
+//   CANCEL <national ID>
+//   NAME <part of a name>        guest name search, up to 20 results
+//   PHONE <phone number>         guests booked under a phone number
+//   STAYS <room ID>              stays booked in a room
+//   ARRIVALS <dd/MM/yyyy> <dd/MM/yyyy>
+//   VACANT <dd/MM/yyyy> <dd/MM/yyyy> [min capacity] [room type]
+//   MONTHLY <room ID> <MM/yyyy>  monthly revenue of a room
+//   TYPE <room type>             total revenue of a room type
+//   OCCUPANCY <dd/MM/yyyy> <dd/MM/yyyy>
+//   SAVE                         save guest changes
+// With several threads the lines are dealt out round-robin and each thread runs its share
+// in script order. Nothing is saved unless the script says SAVE.
+public class WorkloadDriver {
+
+    private static final DateTimeFormatter MONTH_INPUT_FORMATTER = DateTimeFormatter.ofPattern("M/yyyy");
+    private static final int NAME_SEARCH_LIMIT = 20;
+
+    private final BookingService service;
+
+    public WorkloadDriver(BookingService service) {
+        this.service = service;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: WorkloadDriver <room file> <guest file> <script file> [threads]");
+            return;
+        }
+        Metrics.install();
+        try {
+            IRoom roomDAO = new RoomDAO(args[0]);
+            IGuest guestDAO = ColumnarGuestDAO.SELECTED
+                    ? new ColumnarGuestDAO(args[1])
+                    : new ConcurrentGuestDAO(args[1]);
+            if (Metrics.ENABLED) {
+                roomDAO = new MeteredRoomDAO(roomDAO);
+                guestDAO = new MeteredGuestDAO(guestDAO);
+            }
+            List<String> script = new ArrayList<>();
+            for (String line : new FileManager(args[2]).readDataFromFile()) {
+                String command = line.trim();
+                if (!command.isEmpty() && !command.startsWith("#")) {
+                    script.add(command);
+                }
+            }
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+            WorkloadDriver driver = new WorkloadDriver(new BookingService(roomDAO, guestDAO));
+            driver.run(script, threads).print();
+            guestDAO.flush();
+            if (Metrics.ENABLED) {
+                System.out.print(Metrics.report());
+            }
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    public Report run(List<String> script, int threads) throws Exception {
+        List<List<String>> shares = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            shares.add(new ArrayList<>());
+        }
+        for (int i = 0; i < script.size(); i++) {
+            shares.get(i % threads).add(script.get(i));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Report>> results = new ArrayList<>(threads);
+        try {
+            for (List<String> share : shares) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return replay(share);
+                }));
+            }
+            long startTime = System.nanoTime();
+            start.countDown();
+            Report report = new Report();
+            for (Future<Report> result : results) {
+                report.merge(result.get());
+            }
+            report.elapsedNanos = System.nanoTime() - startTime;
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Report replay(List<String> commands) {
+        Report report = new Report();
+        for (String command : commands) {
+            String[] parts = command.split("\\s+", 2);
+            String name = parts[0].toUpperCase();
+            String argument = parts.length > 1 ? parts[1] : "";
+            long startTime = System.nanoTime();
+            boolean succeeded;
+            try {
+                succeeded = execute(name, argument);
+            } catch (Exception e) {
+                succeeded = false;
+            }
+            report.record(name, System.nanoTime() - startTime, succeeded);
+        }
+        return report;
+    }
+
+    // Returns false when the operation was rejected; malformed commands throw
+    private boolean execute(String name, String argument) throws Exception {
+        String[] fields = argument.isEmpty() ? new String[0] : argument.split("\\s+");
+        switch (name) {
+            case "BOOK" -> {
+                return service.book(GuestDAO.parseGuest(argument)).isSuccess();
+            }
+            case "REBOOK" -> {
+                return service.rebook(GuestDAO.parseGuest(argument)).isSuccess();
+            }
+            case "LOOKUP" -> {
+                return service.findGuest(argument) != null;
+            }
+            case "CANCEL" -> {
+                return service.cancel(argument).isSuccess();
+            }
+            case "NAME" -> {
+                return !service.searchGuestsByName(argument, NAME_SEARCH_LIMIT).isEmpty();
+            }
+            case "PHONE" -> {
+                return !service.findGuestsByPhoneNumber(argument).isEmpty();
+            }
+            case "STAYS" -> {
+                return !service.findGuestsByRoom(argument).isEmpty();
+            }
+            case "ARRIVALS" -> {
+                service.findArrivals(parseDate(fields[0]), parseDate(fields[1]));
+                return true;
+            }
+            case "VACANT" -> {
+                int minCapacity = fields.length > 2 ? Integer.parseInt(fields[2]) : 0;
+                String roomType = fields.length > 3 ? fields[3] : "";
+                service.findVacantRooms(parseDate(fields[0]), parseDate(fields[1]), minCapacity, roomType);
+                return true;
+            }
+            case "MONTHLY" -> {
+                Room room = service.findRoom(fields[0]);
+                if (room == null) {
+                    return false;
+                }
+                service.calculateMonthlyRevenueOfRoom(room, YearMonth.parse(fields[1], MONTH_INPUT_FORMATTER));
+                return true;
+            }
+            case "TYPE" -> {
+                service.calculateTotalRevenueOfRoomType(argument);
+                return true;
+            }
+            case "OCCUPANCY" -> {
+                service.analyzeOccupancy(parseDate(fields[0]), parseDate(fields[1]));
+                return true;
+            }
+            case "SAVE" -> {
+                service.save();
+                return true;
+            }
+            default ->
+                throw new Exception("Unknown command: " + name);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        return LocalDate.parse(value, Constants.DATE_FORMATTER);
+    }
+
+    public static final class Report {
+
+        private final Map<String, List<Long>> latencies = new TreeMap<>();
+        private final Map<String, Integer> failures = new TreeMap<>();
+        private long elapsedNanos;
+
+        private void record(String command, long nanos, boolean succeeded) {
+            latencies.computeIfAbsent(command, k -> new ArrayList<>()).add(nanos);
+            if (!succeeded) {
+                failures.merge(command, 1, Integer::sum);
+            }
+        }
+
+        private void merge(Report other) {
+            other.latencies.forEach((command, values) -> latencies.computeIfAbsent(command, k -> new ArrayList<>()).addAll(values));
+            other.failures.forEach((command, count) -> failures.merge(command, count, Integer::sum));
+        }
+
+        public void print() {
+            long[] all = sorted(latencies.values().stream().flatMap(List::stream).mapToLong(Long::longValue).toArray());
+            double seconds = elapsedNanos / 1e9;
+            System.out.format("%d operations in %.3f s, %.0f ops/s%n", all.length, seconds,
+                    seconds == 0 ? 0 : all.length / seconds);
+            System.out.println(String.join("", Collections.nCopies(72, "-")));
+            System.out.format("  %-10s | %8s | %8s | %10s | %10s | %10s%n",
+                    "Command", "Count", "Rejected", "p50 (us)", "p95 (us)", "p99 (us)");
+            System.out.println(String.join("", Collections.nCopies(72, "-")));
+            latencies.forEach((command, values) -> printRow(command,
+                    sorted(values.stream().mapToLong(Long::longValue).toArray()),
+                    failures.getOrDefault(command, 0)));
+            System.out.println(String.join("", Collections.nCopies(72, "-")));
+            printRow("All", all, failures.values().stream().mapToInt(Integer::intValue).sum());
+        }
+
+        private static void printRow(String command, long[] values, int rejected) {
+            System.out.format("  %-10s | %8d | %8d | %10.1f | %10.1f | %10.1f%n", command, values.length, rejected,
+                    percentile(values, 50) / 1e3, percentile(values, 95) / 1e3, percentile(values, 99) / 1e3);
+        }
+
+        private static long[] sorted(long[] values) {
+            Arrays.sort(values);
+            return values;
+        }
+
+        // Nearest-rank percentile of sorted values
+        private static long percentile(long[] values, int percent) {
+            if (values.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percent / 100.0 * values.length);
+            return values[Math.max(0, rank - 1)];
+        }
+    }
+}
@@ -41,6 +41,47 @@ public final class Guest {
         setNameOfCoTenant(nameOfCoTenant);
     }
 
+    private Guest() {
+    }
+
+    // Rebuilds a guest from values that were checked when the guest was first stored, without
+    // checking them again: a stay that has begun since would no longer pass setStartDate.
+    public static Guest restore(
+            String nationalID, String fullName, LocalDate birthdate, String gender, String phoneNumber,
+            String desiredRoomID, int numberOfRentalDays, LocalDate startDate, String nameOfCoTenant
+    ) {
+        Guest guest = new Guest();
+        guest.nationalID = nationalID;
+        guest.fullName = fullName;
+        guest.birthdate = birthdate;
+        guest.gender = gender;
+        guest.phoneNumber = phoneNumber;
+        guest.desiredRoomID = desiredRoomID;
+        guest.numberOfRentalDays = numberOfRentalDays;
+        guest.startDate = startDate;
+        guest.nameOfCoTenant = nameOfCoTenant;
+        return guest;
+    }
+
+    // Rebuilds a guest from a stored line, checking every field as the constructor does except
+    // that the stay may have begun since the guest was booked.
+    public static Guest fromRecord(
+            String nationalID, String fullName, LocalDate birthdate, String gender, String phoneNumber,
+            String desiredRoomID, int numberOfRentalDays, LocalDate startDate, String nameOfCoTenant
+    ) throws Exception {
+        Guest guest = new Guest();
+        guest.setNationalID(nationalID);
+        guest.setFullName(fullName);
+        guest.setBirthdate(birthdate);
+        guest.setGender(gender);
+        guest.setPhoneNumber(phoneNumber);
+        guest.setDesiredRoomID(desiredRoomID);
+        guest.setNumberOfRentalDays(numberOfRentalDays);
+        guest.startDate = startDate;
+        guest.setNameOfCoTenant(nameOfCoTenant);
+        return guest;
+    }
+
     // public Guest(
     //         String nationalID, String fullName, LocalDate birthdate, String gender, String phoneNumber,
     //         String desiredRoomID, int numberOfRentalDays, LocalDate startDate
@@ -92,14 +133,14 @@ public final class Guest {
     }
 
     public void setNationalID(String nationalID) throws Exception {
-        if (!DataValidate.checkStringWithFormat(nationalID, Constants.NATIONAL_ID_PATTERN)) {
+        if (!DataValidate.checkStringWithFormat(nationalID, Constants.NATIONAL_ID_REGEX)) {
             throw new Exception("National ID invalid.");
         }
         this.nationalID = nationalID;
     }
 
     public void setFullName(String fullName) throws Exception {
-        if (!DataValidate.checkStringWithFormat(fullName, Constants.GUEST_NAME_PATTERN)) {
+        if (!DataValidate.checkStringWithFormat(fullName, Constants.GUEST_NAME_REGEX)) {
             throw new Exception("Full name invalid.");
         }
         this.fullName = DataUtils.toTitleCase(fullName);
@@ -121,21 +162,21 @@ public final class Guest {
     }
 
     public void setPhoneNumber(String phoneNumber) throws Exception {
-        if (!DataValidate.checkStringWithFormat(phoneNumber, Constants.GUEST_PHONE_PATTERN)) {
+        if (!DataValidate.checkStringWithFormat(phoneNumber, Constants.GUEST_PHONE_REGEX)) {
             throw new Exception("Phone number invalid.");
         }
         this.phoneNumber = phoneNumber;
     }
 
     public void setDesiredRoomID(String desiredRoomID) throws Exception {
-        if (!DataValidate.checkStringWithFormat(desiredRoomID, Constants.ROOM_ID_PATTERN)) {
+        if (!DataValidate.checkStringWithFormat(desiredRoomID, Constants.ROOM_ID_REGEX)) {
             throw new Exception("Desired room ID invalid.");
         }
         this.desiredRoomID = desiredRoomID.toUpperCase();
     }
 
     public void setNumberOfRentalDays(int numberOfRentalDays) throws Exception {
-        if (!DataValidate.checkStringWithFormat(String.valueOf(numberOfRentalDays), Constants.POSITIVE_NUMBER_PATTERN)) {
+        if (!DataValidate.checkPositiveNumber(numberOfRentalDays)) {
             throw new Exception("Number of rental days must be a positive integer.");
         }
         this.numberOfRentalDays = numberOfRentalDays;
@@ -153,7 +194,7 @@ public final class Guest {
             this.nameOfCoTenant = "";
             return;
         }
-        if (!DataValidate.checkStringWithFormat(nameOfCoTenant, Constants.GUEST_NAME_CO_TENANT_PATTERN)) {
+        if (!DataValidate.checkStringWithFormat(nameOfCoTenant, Constants.GUEST_NAME_CO_TENANT_REGEX)) {
             throw new Exception("Name of co-tenant invalid.");
         }
         this.nameOfCoTenant = DataUtils.toTitleCase(nameOfCoTenant);
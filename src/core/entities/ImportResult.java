@@ -0,0 +1,28 @@
+package core.entities;
+
+import java.util.Collections;
+import java.util.SortedMap;
+
+public final class ImportResult {
+
+    private final int importedCount;
+    private final SortedMap<Integer, String> rejections;
+
+    public ImportResult(int importedCount, SortedMap<Integer, String> rejections) {
+        this.importedCount = importedCount;
+        this.rejections = Collections.unmodifiableSortedMap(rejections);
+    }
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejections.size();
+    }
+
+    // Line number -> reason, for every row that was not imported
+    public SortedMap<Integer, String> getRejections() {
+        return rejections;
+    }
+}
@@ -1,6 +1,5 @@
 package core.entities;
 
-import common.env.Constants;
 import common.tools.DataValidate;
 
 public final class Room {
@@ -58,14 +57,14 @@ public final class Room {
     }
 
     public void setDailyRate(double dailyRate) throws Exception {
-        if (!DataValidate.checkStringWithFormat(String.valueOf(dailyRate), Constants.POSITIVE_NUMBER_PATTERN)) {
+        if (!DataValidate.checkPositiveNumber(dailyRate)) {
             throw new Exception("Daily rate invalid.");
         }
         this.dailyRate = dailyRate;
     }
 
     public void setCapacity(int capacity) throws Exception {
-        if (!DataValidate.checkStringWithFormat(String.valueOf(capacity), Constants.POSITIVE_NUMBER_PATTERN)) {
+        if (!DataValidate.checkPositiveNumber(capacity)) {
             throw new Exception("Capacity invalid.");
         }
         this.capacity = capacity;
@@ -1,7 +1,11 @@
 package core.interfaces;
 
 import core.entities.Guest;
+import core.entities.ImportResult;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Set;
 
 public interface IGuest {
 
@@ -9,11 +13,55 @@ public interface IGuest {
 
     Guest getGuestById(String id) throws Exception;
 
+    // Number of guests in memory; 0 until they are loaded. Never loads them, so monitoring
+    // can call it without undoing the lazy start.
+    int getLoadedGuestCount();
+
     void addGuest(Guest guest) throws Exception;
 
     void updateGuest(Guest guest) throws Exception;
 
     void removeGuest(Guest guest) throws Exception;
 
+    // Adds the guest unless their stay overlaps another booking of the room; the check and
+    // the insert happen as one step. Returns false on a conflict.
+    boolean bookGuest(Guest guest) throws Exception;
+
+    // Replaces the stored guest with the same national ID unless the new stay overlaps
+    // another guest's booking. Returns false on a conflict.
+    boolean rebookGuest(Guest guest) throws Exception;
+
+    // Imports the reservation file in guest file format. Rows for rooms not in roomIds, for
+    // existing guests, or clashing with a booking or an earlier row are rejected; the rest
+    // are added together.
+    ImportResult importGuests(String fileName, Set<String> roomIds) throws Exception;
+
+    boolean hasOverlappingStay(String roomId, LocalDate startDate, int numberOfDays, String excludeGuestId) throws Exception;
+
+    boolean isRoomFree(String roomId, LocalDate startDate, LocalDate endDate) throws Exception;
+
+    List<LocalDate> findFreeWindows(String roomId, LocalDate fromDate, int numberOfDays, int limit, String excludeGuestId) throws Exception;
+
+    long getRentalDaysOfRoom(String roomId) throws Exception;
+
+    long getRentalDaysOfRoomInMonth(String roomId, YearMonth month) throws Exception;
+
+    // Guests booked under the phone number, by national ID
+    List<Guest> findGuestsByPhoneNumber(String phoneNumber) throws Exception;
+
+    // Stays booked in the room, by check-in date and then national ID
+    List<Guest> findGuestsByRoom(String roomId) throws Exception;
+
+    // Guests checking in from fromDate to toDate, both included, by check-in date and then
+    // national ID
+    List<Guest> findGuestsArrivingBetween(LocalDate fromDate, LocalDate toDate) throws Exception;
+
+    // Guests whose full name or co-tenant name matches the query, best match first: the whole
+    // name, then names starting with the query, then names whose words start with the query's
+    // words, then names a few typos away. Case is ignored.
+    List<Guest> searchGuestsByName(String query, int limit) throws Exception;
+
     void saveGuestsListToFile() throws Exception;
+
+    void flush() throws Exception;
 }
@@ -7,8 +7,14 @@ public interface IRoom {
 
     public void loadData() throws Exception;
 
-    public List<Room> getRooms();
+    public List<Room> getRooms() throws Exception;
 
     public Room getRoomById(String id) throws Exception;
 
+    // Number of rooms in the catalog; 0 until it is loaded. Never loads it.
+    public int getLoadedRoomCount();
+
+    // Rooms of the type with at least minCapacity places, sorted by daily rate
+    public List<Room> getRoomsByTypeAndMinCapacity(String roomType, int minCapacity) throws Exception;
+
 }
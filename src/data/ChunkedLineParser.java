@@ -0,0 +1,149 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ChunkedLineParser<T> {
+
+    private static final int CHUNK_SIZE = 2048;
+    private static final int WINDOW_SIZE = CHUNK_SIZE * 32;
+
+    private final RecordParser<T> PARSER;
+    private final ForkJoinPool POOL;
+
+    public ChunkedLineParser(RecordParser<T> parser) {
+        this(parser, ForkJoinPool.commonPool());
+    }
+
+    public ChunkedLineParser(RecordParser<T> parser, ForkJoinPool pool) {
+        this.PARSER = parser;
+        this.POOL = pool;
+    }
+
+    // Lines are read sequentially into a bounded window, the window is split into
+    // line-aligned chunks that are parsed on the fork-join pool, and the parsed records
+    // are handed to the consumer in file order. A bad line is recorded and skipped.
+    public List<LineError> parse(FileManager fileManager, RecordConsumer<T> consumer) throws Exception {
+        List<LineError> errors = new ArrayList<>();
+        Window<T> window = new Window<>(WINDOW_SIZE);
+        fileManager.readDataFromFile((line, lineNumber) -> {
+            if (line.trim().isEmpty()) {
+                return;
+            }
+            window.add(line, lineNumber);
+            if (window.isFull()) {
+                flush(window, consumer, errors);
+            }
+        });
+        flush(window, consumer, errors);
+        return errors;
+    }
+
+    private void flush(Window<T> window, RecordConsumer<T> consumer, List<LineError> errors) {
+        if (window.size == 0) {
+            return;
+        }
+        POOL.invoke(new ParseTask<>(PARSER, window, 0, window.size));
+        for (int i = 0; i < window.size; i++) {
+            if (window.errors[i] == null) {
+                try {
+                    consumer.accept(window.records[i], window.lineNumbers[i]);
+                } catch (Exception e) {
+                    window.errors[i] = messageOf(e);
+                }
+            }
+            if (window.errors[i] != null) {
+                errors.add(new LineError(window.lineNumbers[i], window.errors[i]));
+            }
+        }
+        window.clear();
+    }
+
+    private static String messageOf(Exception e) {
+        return e.getMessage() == null ? e.toString() : e.getMessage();
+    }
+
+    @FunctionalInterface
+    public interface RecordParser<T> {
+
+        T parse(String line) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface RecordConsumer<T> {
+
+        void accept(T record, int lineNumber) throws Exception;
+    }
+
+    private static final class Window<T> {
+
+        private final String[] lines;
+        private final int[] lineNumbers;
+        private final T[] records;
+        private final String[] errors;
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private Window(int capacity) {
+            this.lines = new String[capacity];
+            this.lineNumbers = new int[capacity];
+            this.records = (T[]) new Object[capacity];
+            this.errors = new String[capacity];
+        }
+
+        private void add(String line, int lineNumber) {
+            lines[size] = line;
+            lineNumbers[size] = lineNumber;
+            size++;
+        }
+
+        private boolean isFull() {
+            return size == lines.length;
+        }
+
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                lines[i] = null;
+                records[i] = null;
+                errors[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+    private static final class ParseTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RecordParser<T> parser;
+        private final Window<T> window;
+        private final int from;
+        private final int to;
+
+        private ParseTask(RecordParser<T> parser, Window<T> window, int from, int to) {
+            this.parser = parser;
+            this.window = window;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        window.records[i] = parser.parse(window.lines[i]);
+                    } catch (Exception e) {
+                        window.errors[i] = messageOf(e);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask<>(parser, window, from, middle),
+                    new ParseTask<>(parser, window, middle, to));
+        }
+    }
+}
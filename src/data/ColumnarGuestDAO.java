@@ -0,0 +1,721 @@
+package data;
+
+import core.entities.Guest;
+import core.entities.ImportResult;
+import core.interfaces.IGuest;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+// IGuest that keeps the reservations column by column in primitive arrays rather than as one
+// Guest object each: national ID and phone number as longs, dates as epoch days, room IDs and
+// names as indexes into string pools. Guest objects are only built when a caller asks for a
+// guest, and the availability and revenue queries scan each room's stays in parallel int
+// arrays. Meant for data sets of a million reservations and more; select it with
+// -Dguest.store=columnar.
+//
+// Reads and writes the same guest file, change log and snapshot as GuestDAO, through the
+// same GuestFiles. Every method is synchronized: the work under the lock is in-memory array
+// access.
+public class ColumnarGuestDAO implements IGuest {
+
+    public static final boolean SELECTED = "columnar".equalsIgnoreCase(System.getProperty("guest.store"));
+
+    private static final long NO_GUEST = -1;
+
+    private Columns rows = new Columns(1024);
+    private final LongIntHashMap ROW_BY_ID = new LongIntHashMap();
+    private final StringPool NAMES = new StringPool();
+    private final StringPool ROOM_IDS = new StringPool();
+    // Stays by room index in ROOM_IDS; null for a room without stays
+    private final List<RoomStays> STAYS_BY_ROOM = new ArrayList<>();
+    // Check-in day << 40 | national ID, for arrivals between two dates
+    private final SortedLongArray ARRIVALS = new SortedLongArray();
+    // Phone number << 30 | row. Phone numbers start with 0, so they fit in 30 bits too
+    private final SortedLongArray PHONES = new SortedLongArray();
+    private final GuestNameIndex NAME_INDEX = new GuestNameIndex();
+    private List<Guest> guestsView;
+    private final GuestFiles FILES;
+
+    // Reads nothing: the guests are loaded on first use
+    public ColumnarGuestDAO(String fileName) {
+        this.FILES = new GuestFiles(fileName, new ColumnStore());
+    }
+
+    private void ensureLoaded() throws Exception {
+        FILES.ensureLoaded();
+    }
+
+    // Reloads the guests from the files, dropping unsaved changes. Skipped when nothing has
+    // changed since the last load, neither in memory nor in the guest file or its change log.
+    public synchronized void loadData() throws Exception {
+        FILES.load();
+    }
+
+    public synchronized List<LineError> getLoadErrors() throws Exception {
+        return FILES.getLoadErrors();
+    }
+
+    @Override
+    public synchronized List<Guest> getGuests() throws Exception {
+        ensureLoaded();
+        return sortedGuests();
+    }
+
+    private List<Guest> sortedGuests() {
+        if (guestsView == null) {
+            guestsView = freeze();
+        }
+        return guestsView;
+    }
+
+    // A frozen copy of the columns in national ID order; getGuests keeps it until the next
+    // write. Its guests are built as they are read, so the copy costs the columns, not a
+    // Guest each.
+    private List<Guest> freeze() {
+        Columns frozen = rows.copy();
+        long[] sortedIds = Arrays.copyOf(frozen.nationalIds, frozen.size);
+        Arrays.sort(sortedIds);
+        int[] order = new int[frozen.size];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = ROW_BY_ID.get(sortedIds[i]);
+        }
+        return new GuestView(frozen, order, NAMES.values(), ROOM_IDS.values());
+    }
+
+    @Override
+    public synchronized Guest getGuestById(String id) throws Exception {
+        ensureLoaded();
+        int row = rowOf(id);
+        return row == LongIntHashMap.MISSING ? null : rows.guest(row, NAMES.values(), ROOM_IDS.values());
+    }
+
+    @Override
+    public synchronized int getLoadedGuestCount() {
+        return FILES.isLoaded() ? rows.size : 0;
+    }
+
+    @Override
+    public synchronized void addGuest(Guest guest) throws Exception {
+        ensureLoaded();
+        if (rowOf(guest.getNationalID()) != LongIntHashMap.MISSING) {
+            throw new Exception("Guest already exists");
+        }
+        indexLookups(insert(guest));
+        FILES.trackChange(guest.getNationalID(), GuestJournal.ADDED);
+    }
+
+    @Override
+    public synchronized void updateGuest(Guest guest) throws Exception {
+        ensureLoaded();
+        int row = rowOf(guest.getNationalID());
+        if (row != LongIntHashMap.MISSING) {
+            delete(row);
+            indexLookups(insert(guest));
+            FILES.trackChange(guest.getNationalID(), GuestJournal.UPDATED);
+        }
+    }
+
+    @Override
+    public synchronized void removeGuest(Guest guest) throws Exception {
+        ensureLoaded();
+        int row = rowOf(guest.getNationalID());
+        if (row == LongIntHashMap.MISSING) {
+            throw new Exception("Guest not found");
+        }
+        if (rows.startDays[row] <= LocalDate.now().toEpochDay()) {
+            throw new Exception("The room booking for this guest cannot be cancelled");
+        }
+        delete(row);
+        FILES.trackChange(guest.getNationalID(), GuestJournal.REMOVED);
+    }
+
+    @Override
+    public synchronized boolean bookGuest(Guest guest) throws Exception {
+        if (hasOverlappingStay(guest.getDesiredRoomID(), guest.getStartDate(), guest.getNumberOfRentalDays(), null)) {
+            return false;
+        }
+        addGuest(guest);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean rebookGuest(Guest guest) throws Exception {
+        ensureLoaded();
+        if (rowOf(guest.getNationalID()) == LongIntHashMap.MISSING) {
+            throw new Exception("Guest not found");
+        }
+        if (hasOverlappingStay(guest.getDesiredRoomID(), guest.getStartDate(), guest.getNumberOfRentalDays(), guest.getNationalID())) {
+            return false;
+        }
+        updateGuest(guest);
+        return true;
+    }
+
+    @Override
+    public synchronized ImportResult importGuests(String fileName, Set<String> roomIds) throws Exception {
+        return FILES.commitReservations(GuestFiles.parseReservations(fileName), roomIds);
+    }
+
+    @Override
+    public synchronized boolean hasOverlappingStay(String roomId, LocalDate startDate, int numberOfDays, String excludeGuestId) throws Exception {
+        ensureLoaded();
+        RoomStays stays = staysOf(roomId);
+        if (stays == null) {
+            return false;
+        }
+        long excluded = excludeGuestId == null ? NO_GUEST : digitsOf(excludeGuestId, 12);
+        int start = (int) startDate.toEpochDay();
+        return stays.hasOverlap(start, start + numberOfDays - 1, excluded);
+    }
+
+    @Override
+    public synchronized boolean isRoomFree(String roomId, LocalDate startDate, LocalDate endDate) throws Exception {
+        ensureLoaded();
+        RoomStays stays = staysOf(roomId);
+        return stays == null || !stays.hasOverlap((int) startDate.toEpochDay(), (int) endDate.toEpochDay(), NO_GUEST);
+    }
+
+    @Override
+    public synchronized List<LocalDate> findFreeWindows(String roomId, LocalDate fromDate, int numberOfDays, int limit, String excludeGuestId) throws Exception {
+        ensureLoaded();
+        RoomStays stays = staysOf(roomId);
+        if (stays == null) {
+            List<LocalDate> windows = new ArrayList<>(1);
+            windows.add(fromDate);
+            return windows;
+        }
+        long excluded = excludeGuestId == null ? NO_GUEST : digitsOf(excludeGuestId, 12);
+        return stays.freeWindows((int) fromDate.toEpochDay(), numberOfDays, limit, excluded);
+    }
+
+    @Override
+    public synchronized long getRentalDaysOfRoom(String roomId) throws Exception {
+        ensureLoaded();
+        RoomStays stays = staysOf(roomId);
+        return stays == null ? 0 : stays.totalDays;
+    }
+
+    // Days of the stays that start in the month, as the monthly report counts them
+    @Override
+    public synchronized long getRentalDaysOfRoomInMonth(String roomId, YearMonth month) throws Exception {
+        ensureLoaded();
+        RoomStays stays = staysOf(roomId);
+        return stays == null ? 0
+                : stays.daysStartingBetween((int) month.atDay(1).toEpochDay(), (int) month.atEndOfMonth().toEpochDay());
+    }
+
+    @Override
+    public synchronized List<Guest> findGuestsByPhoneNumber(String phoneNumber) throws Exception {
+        ensureLoaded();
+        List<Guest> guests = new ArrayList<>();
+        long phone = digitsOf(phoneNumber, 10);
+        if (phone == NO_GUEST) {
+            return guests;
+        }
+        List<Integer> found = new ArrayList<>();
+        for (int i = PHONES.ceilingIndex(phone << 30); i < PHONES.size() && (PHONES.get(i) >>> 30) == phone; i++) {
+            found.add((int) (PHONES.get(i) & ((1 << 30) - 1)));
+        }
+        found.sort(Comparator.comparingLong(row -> rows.nationalIds[row]));
+        for (int row : found) {
+            guests.add(rows.guest(row, NAMES.values(), ROOM_IDS.values()));
+        }
+        return guests;
+    }
+
+    @Override
+    public synchronized List<Guest> findGuestsByRoom(String roomId) throws Exception {
+        ensureLoaded();
+        List<Guest> guests = new ArrayList<>();
+        RoomStays stays = staysOf(roomId);
+        for (int i = 0; stays != null && i < stays.size; i++) {
+            guests.add(rows.guest(ROW_BY_ID.get(stays.nationalIds[i]), NAMES.values(), ROOM_IDS.values()));
+        }
+        return guests;
+    }
+
+    @Override
+    public synchronized List<Guest> findGuestsArrivingBetween(LocalDate fromDate, LocalDate toDate) throws Exception {
+        ensureLoaded();
+        List<Guest> guests = new ArrayList<>();
+        long end = (toDate.toEpochDay() + 1) << 40;
+        for (int i = ARRIVALS.ceilingIndex(fromDate.toEpochDay() << 40); i < ARRIVALS.size() && ARRIVALS.get(i) < end; i++) {
+            int row = ROW_BY_ID.get(ARRIVALS.get(i) & ((1L << 40) - 1));
+            guests.add(rows.guest(row, NAMES.values(), ROOM_IDS.values()));
+        }
+        return guests;
+    }
+
+    @Override
+    public synchronized List<Guest> searchGuestsByName(String query, int limit) throws Exception {
+        ensureLoaded();
+        List<Guest> guests = new ArrayList<>();
+        for (long nationalId : NAME_INDEX.search(query, limit)) {
+            guests.add(rows.guest(ROW_BY_ID.get(nationalId), NAMES.values(), ROOM_IDS.values()));
+        }
+        return guests;
+    }
+
+    @Override
+    public synchronized void saveGuestsListToFile() throws Exception {
+        FILES.save();
+    }
+
+    @Override
+    public void flush() throws Exception {
+        WriteBehindSaver.getInstance().flush();
+    }
+
+    private void clear() {
+        rows = new Columns(1024);
+        ROW_BY_ID.clear();
+        NAMES.clear();
+        ROOM_IDS.clear();
+        STAYS_BY_ROOM.clear();
+        ARRIVALS.clear();
+        PHONES.clear();
+        NAME_INDEX.clear();
+        guestsView = null;
+    }
+
+    private int insert(Guest guest) {
+        return insert(Long.parseLong(guest.getNationalID()), NAMES.intern(guest.getFullName()),
+                (int) guest.getBirthdate().toEpochDay(), (byte) (guest.getGender().equalsIgnoreCase("male") ? 0 : 1),
+                Long.parseLong(guest.getPhoneNumber()), roomIndex(guest.getDesiredRoomID()),
+                guest.getNumberOfRentalDays(), (int) guest.getStartDate().toEpochDay(),
+                NAMES.intern(guest.getNameOfCoTenant()));
+    }
+
+    // Adds the row everywhere but the lookup indexes; see indexLookups
+    private int insert(long nationalId, int fullName, int birthDay, byte gender, long phoneNumber, int room,
+            int rentalDays, int startDay, int coTenant) {
+        int row = rows.add(nationalId, fullName, birthDay, gender, phoneNumber, room, rentalDays, startDay, coTenant);
+        ROW_BY_ID.put(nationalId, row);
+        RoomStays stays = STAYS_BY_ROOM.get(room);
+        if (stays == null) {
+            stays = new RoomStays();
+            STAYS_BY_ROOM.set(room, stays);
+        }
+        stays.add(nationalId, startDay, rentalDays);
+        NAME_INDEX.add(nationalId, NAMES.get(fullName));
+        NAME_INDEX.add(nationalId, NAMES.get(coTenant));
+        guestsView = null;
+        return row;
+    }
+
+    private void indexLookups(int row) {
+        ARRIVALS.add(arrivalKey(row));
+        PHONES.add(phoneKey(row));
+    }
+
+    // Rows fromRow to toRow, excluded, merged into the lookup indexes in one pass
+    private void indexLookups(int fromRow, int toRow) {
+        long[] arrivals = new long[toRow - fromRow];
+        long[] phones = new long[toRow - fromRow];
+        for (int row = fromRow; row < toRow; row++) {
+            arrivals[row - fromRow] = arrivalKey(row);
+            phones[row - fromRow] = phoneKey(row);
+        }
+        ARRIVALS.addAll(arrivals, arrivals.length);
+        PHONES.addAll(phones, phones.length);
+    }
+
+    private long arrivalKey(int row) {
+        return (long) rows.startDays[row] << 40 | rows.nationalIds[row];
+    }
+
+    private long phoneKey(int row) {
+        return rows.phoneNumbers[row] << 30 | row;
+    }
+
+    // The last row moves into the freed one, so the columns stay dense
+    private void delete(int row) {
+        long nationalId = rows.nationalIds[row];
+        STAYS_BY_ROOM.get(rows.roomIndexes[row]).remove(nationalId, rows.startDays[row], rows.rentalDays[row]);
+        ROW_BY_ID.remove(nationalId);
+        ARRIVALS.remove(arrivalKey(row));
+        PHONES.remove(phoneKey(row));
+        NAME_INDEX.remove(nationalId, NAMES.get(rows.fullNames[row]));
+        NAME_INDEX.remove(nationalId, NAMES.get(rows.coTenants[row]));
+        int last = rows.size - 1;
+        if (row != last) {
+            PHONES.remove(phoneKey(last));
+            rows.move(last, row);
+            ROW_BY_ID.put(rows.nationalIds[row], row);
+            PHONES.add(phoneKey(row));
+        }
+        rows.size--;
+        guestsView = null;
+    }
+
+    private int roomIndex(String roomId) {
+        int room = ROOM_IDS.intern(roomId.toUpperCase());
+        while (STAYS_BY_ROOM.size() <= room) {
+            STAYS_BY_ROOM.add(null);
+        }
+        return room;
+    }
+
+    private RoomStays staysOf(String roomId) {
+        int room = ROOM_IDS.indexOf(roomId.toUpperCase());
+        return room < 0 ? null : STAYS_BY_ROOM.get(room);
+    }
+
+    private int rowOf(String nationalID) {
+        long nationalId = digitsOf(nationalID, 12);
+        return nationalId == NO_GUEST ? LongIntHashMap.MISSING : ROW_BY_ID.get(nationalId);
+    }
+
+    // The value of exactly width digits; NO_GUEST for anything else
+    private static long digitsOf(String text, int width) {
+        if (text.length() != width) {
+            return NO_GUEST;
+        }
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            char digit = text.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return NO_GUEST;
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    // GuestFiles loading into and reading from the columns. Rows of the guest file, its
+    // snapshot and an import get their lookup index entries in one merge each.
+    private final class ColumnStore implements GuestFiles.Store {
+
+        @Override
+        public void clear() {
+            ColumnarGuestDAO.this.clear();
+        }
+
+        @Override
+        public int size() {
+            return rows.size;
+        }
+
+        @Override
+        public boolean contains(String nationalID) {
+            return rowOf(nationalID) != LongIntHashMap.MISSING;
+        }
+
+        @Override
+        public Guest get(String nationalID) {
+            return rows.guest(rowOf(nationalID), NAMES.values(), ROOM_IDS.values());
+        }
+
+        @Override
+        public void load(Guest guest) {
+            insert(guest);
+        }
+
+        // Reads the record straight into the columns, without a Guest. Like GuestDAO, checks
+        // no dates: the records were written from loaded guests, and a stay that has begun
+        // since must still load.
+        @Override
+        public void read(SnapshotFile.Decoder decoder) throws Exception {
+            long nationalId = decoder.getLong();
+            int fullName = NAMES.intern(decoder.getString());
+            int birthDay = (int) decoder.getDate().toEpochDay();
+            byte gender = decoder.getByte();
+            long phoneNumber = decoder.getLong();
+            int room = roomIndex(decoder.getString());
+            int rentalDays = decoder.getInt();
+            int startDay = (int) decoder.getDate().toEpochDay();
+            int coTenant = NAMES.intern(decoder.getString());
+            if (ROW_BY_ID.get(nationalId) != LongIntHashMap.MISSING) {
+                throw new IllegalArgumentException("Duplicate national ID found: " + GuestDAO.zeroPad(nationalId, 12));
+            }
+            insert(nationalId, fullName, birthDay, gender, phoneNumber, room, rentalDays, startDay, coTenant);
+        }
+
+        @Override
+        public void baseLoaded() {
+            indexLookups(0, rows.size);
+        }
+
+        @Override
+        public void replace(Guest guest) {
+            remove(guest.getNationalID());
+            indexLookups(insert(guest));
+        }
+
+        @Override
+        public void remove(String nationalID) {
+            int row = rowOf(nationalID);
+            if (row != LongIntHashMap.MISSING) {
+                delete(row);
+            }
+        }
+
+        @Override
+        public void addAll(List<Guest> guests) {
+            int firstRow = rows.size;
+            guests.forEach(ColumnarGuestDAO.this::insert);
+            indexLookups(firstRow, rows.size);
+        }
+
+        // Not kept as the getGuests view: right after a load, that would double the memory
+        @Override
+        public List<Guest> snapshot() {
+            return freeze();
+        }
+
+        @Override
+        public long[] stayRanges(String roomId) {
+            RoomStays stays = staysOf(roomId);
+            return stays == null ? new long[0] : stays.ranges();
+        }
+    }
+
+    // One array per guest field, indexed by row
+    private static final class Columns {
+
+        private long[] nationalIds;
+        private int[] fullNames;
+        private int[] birthDays;
+        private byte[] genders;
+        private long[] phoneNumbers;
+        private int[] roomIndexes;
+        private int[] rentalDays;
+        private int[] startDays;
+        private int[] coTenants;
+        private int size;
+
+        private Columns(int capacity) {
+            nationalIds = new long[capacity];
+            fullNames = new int[capacity];
+            birthDays = new int[capacity];
+            genders = new byte[capacity];
+            phoneNumbers = new long[capacity];
+            roomIndexes = new int[capacity];
+            rentalDays = new int[capacity];
+            startDays = new int[capacity];
+            coTenants = new int[capacity];
+        }
+
+        private int add(long nationalId, int fullName, int birthDay, byte gender, long phoneNumber, int room,
+                int days, int startDay, int coTenant) {
+            if (size == nationalIds.length) {
+                resize(size * 2);
+            }
+            nationalIds[size] = nationalId;
+            fullNames[size] = fullName;
+            birthDays[size] = birthDay;
+            genders[size] = gender;
+            phoneNumbers[size] = phoneNumber;
+            roomIndexes[size] = room;
+            rentalDays[size] = days;
+            startDays[size] = startDay;
+            coTenants[size] = coTenant;
+            return size++;
+        }
+
+        private void move(int from, int to) {
+            nationalIds[to] = nationalIds[from];
+            fullNames[to] = fullNames[from];
+            birthDays[to] = birthDays[from];
+            genders[to] = genders[from];
+            phoneNumbers[to] = phoneNumbers[from];
+            roomIndexes[to] = roomIndexes[from];
+            rentalDays[to] = rentalDays[from];
+            startDays[to] = startDays[from];
+            coTenants[to] = coTenants[from];
+        }
+
+        private Columns copy() {
+            Columns copy = new Columns(0);
+            copy.nationalIds = Arrays.copyOf(nationalIds, size);
+            copy.fullNames = Arrays.copyOf(fullNames, size);
+            copy.birthDays = Arrays.copyOf(birthDays, size);
+            copy.genders = Arrays.copyOf(genders, size);
+            copy.phoneNumbers = Arrays.copyOf(phoneNumbers, size);
+            copy.roomIndexes = Arrays.copyOf(roomIndexes, size);
+            copy.rentalDays = Arrays.copyOf(rentalDays, size);
+            copy.startDays = Arrays.copyOf(startDays, size);
+            copy.coTenants = Arrays.copyOf(coTenants, size);
+            copy.size = size;
+            return copy;
+        }
+
+        private void resize(int capacity) {
+            nationalIds = Arrays.copyOf(nationalIds, capacity);
+            fullNames = Arrays.copyOf(fullNames, capacity);
+            birthDays = Arrays.copyOf(birthDays, capacity);
+            genders = Arrays.copyOf(genders, capacity);
+            phoneNumbers = Arrays.copyOf(phoneNumbers, capacity);
+            roomIndexes = Arrays.copyOf(roomIndexes, capacity);
+            rentalDays = Arrays.copyOf(rentalDays, capacity);
+            startDays = Arrays.copyOf(startDays, capacity);
+            coTenants = Arrays.copyOf(coTenants, capacity);
+        }
+
+        private Guest guest(int row, String[] names, String[] roomIds) {
+            return Guest.restore(GuestDAO.zeroPad(nationalIds[row], 12), names[fullNames[row]],
+                    LocalDate.ofEpochDay(birthDays[row]), genders[row] == 0 ? "Male" : "Female",
+                    GuestDAO.zeroPad(phoneNumbers[row], 10), roomIds[roomIndexes[row]], rentalDays[row],
+                    LocalDate.ofEpochDay(startDays[row]), names[coTenants[row]]);
+        }
+    }
+
+    private static final class GuestView extends AbstractList<Guest> implements RandomAccess {
+
+        private final Columns columns;
+        private final int[] order;
+        private final String[] names;
+        private final String[] roomIds;
+
+        private GuestView(Columns columns, int[] order, String[] names, String[] roomIds) {
+            this.columns = columns;
+            this.order = order;
+            this.names = names;
+            this.roomIds = roomIds;
+        }
+
+        @Override
+        public Guest get(int index) {
+            return columns.guest(order[index], names, roomIds);
+        }
+
+        @Override
+        public int size() {
+            return order.length;
+        }
+    }
+
+    // The stays of one room sorted by check-in day and national ID, in parallel arrays. A stay running on a
+    // day started at most longestStay - 1 days before it, which bounds every scan.
+    private static final class RoomStays {
+
+        private int[] startDays = new int[4];
+        private int[] rentalDays = new int[4];
+        private long[] nationalIds = new long[4];
+        private int size;
+        private int longestStay;
+        private long totalDays;
+
+        private void add(long nationalId, int startDay, int days) {
+            if (size == startDays.length) {
+                startDays = Arrays.copyOf(startDays, size * 2);
+                rentalDays = Arrays.copyOf(rentalDays, size * 2);
+                nationalIds = Arrays.copyOf(nationalIds, size * 2);
+            }
+            // Stays starting on the same day are kept in national ID order
+            int at = firstStartingAfter(startDay);
+            while (at > 0 && startDays[at - 1] == startDay && nationalIds[at - 1] > nationalId) {
+                at--;
+            }
+            System.arraycopy(startDays, at, startDays, at + 1, size - at);
+            System.arraycopy(rentalDays, at, rentalDays, at + 1, size - at);
+            System.arraycopy(nationalIds, at, nationalIds, at + 1, size - at);
+            startDays[at] = startDay;
+            rentalDays[at] = days;
+            nationalIds[at] = nationalId;
+            size++;
+            longestStay = Math.max(longestStay, days);
+            totalDays += days;
+        }
+
+        private void remove(long nationalId, int startDay, int days) {
+            for (int i = firstStartingAfter(startDay - 1); i < size && startDays[i] == startDay; i++) {
+                if (nationalIds[i] == nationalId) {
+                    System.arraycopy(startDays, i + 1, startDays, i, size - i - 1);
+                    System.arraycopy(rentalDays, i + 1, rentalDays, i, size - i - 1);
+                    System.arraycopy(nationalIds, i + 1, nationalIds, i, size - i - 1);
+                    size--;
+                    totalDays -= days;
+                    return;
+                }
+            }
+        }
+
+        // Whether a stay other than excludedId's takes any day of [startDay, endDay]
+        private boolean hasOverlap(int startDay, int endDay, long excludedId) {
+            if (endDay < startDay) {
+                return false;
+            }
+            int last = firstStartingAfter(endDay);
+            for (int i = firstStartingAfter(startDay - longestStay); i < last; i++) {
+                if (startDays[i] + rentalDays[i] - 1 >= startDay && nationalIds[i] != excludedId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Start and end day of each stay, in check-in order
+        private long[] ranges() {
+            long[] ranges = new long[size * 2];
+            for (int i = 0; i < size; i++) {
+                ranges[2 * i] = startDays[i];
+                ranges[2 * i + 1] = startDays[i] + rentalDays[i] - 1;
+            }
+            return ranges;
+        }
+
+        private long daysStartingBetween(int fromDay, int toDay) {
+            long days = 0;
+            for (int i = firstStartingAfter(fromDay - 1); i < size && startDays[i] <= toDay; i++) {
+                days += rentalDays[i];
+            }
+            return days;
+        }
+
+        // Start days of the earliest free windows of numberOfDays days on or after fromDay, at
+        // most limit of them and one per gap between bookings, as StayIndex finds them
+        private List<LocalDate> freeWindows(int fromDay, int numberOfDays, int limit, long excludedId) {
+            List<LocalDate> windows = new ArrayList<>(limit);
+            long gapStart = Long.MIN_VALUE;
+            long busyEnd = Long.MIN_VALUE;
+            for (int i = firstStartingAfter(fromDay - longestStay); i < size && windows.size() < limit; i++) {
+                if (nationalIds[i] == excludedId) {
+                    continue;
+                }
+                long start = startDays[i];
+                long end = start + rentalDays[i] - 1;
+                if (start > busyEnd + 1) {
+                    addWindow(windows, gapStart, start, fromDay, numberOfDays);
+                    gapStart = end + 1;
+                } else {
+                    gapStart = Math.max(gapStart, end + 1);
+                }
+                busyEnd = Math.max(busyEnd, end);
+            }
+            if (windows.size() < limit) {
+                addWindow(windows, gapStart, Long.MAX_VALUE, fromDay, numberOfDays);
+            }
+            return windows;
+        }
+
+        // Adds the window of the free days [gapStart, gapEnd) that starts on or after fromDay
+        private static void addWindow(List<LocalDate> windows, long gapStart, long gapEnd, int fromDay, int numberOfDays) {
+            long start = Math.max(gapStart, fromDay);
+            if (gapEnd - start >= numberOfDays) {
+                windows.add(LocalDate.ofEpochDay(start));
+            }
+        }
+
+        private int firstStartingAfter(int day) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (startDays[middle] <= day) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
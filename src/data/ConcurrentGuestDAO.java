@@ -0,0 +1,272 @@
+package data;
+
+import core.entities.Guest;
+import core.entities.ImportResult;
+import core.interfaces.IGuest;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Thread-safe IGuest for several front-desk sessions sharing one GuestDAO.
+//
+// Every change to a room's bookings is made while holding that room's lock, taken from a
+// fixed set of striped locks, so the availability check and the insert of a booking cannot
+// be split by another booking of the same room: the first session to take the lock wins and
+// any overlapping booking after it is rejected. Sessions working on different rooms check
+// availability in parallel under the shared read lock and only take the write lock for the
+// short in-memory update itself.
+public class ConcurrentGuestDAO implements IGuest {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final GuestDAO DELEGATE;
+    private final ReentrantReadWriteLock INDEX_LOCK = new ReentrantReadWriteLock();
+    private final ReentrantLock[] ROOM_LOCKS = new ReentrantLock[LOCK_STRIPES];
+
+    public ConcurrentGuestDAO(String fileName) throws Exception {
+        this(new GuestDAO(fileName));
+    }
+
+    public ConcurrentGuestDAO(GuestDAO delegate) {
+        this.DELEGATE = delegate;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            ROOM_LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public List<Guest> getGuests() throws Exception {
+        return read(DELEGATE::getGuests);
+    }
+
+    @Override
+    public Guest getGuestById(String id) throws Exception {
+        return read(() -> DELEGATE.getGuestById(id));
+    }
+
+    @Override
+    public int getLoadedGuestCount() {
+        INDEX_LOCK.readLock().lock();
+        try {
+            return DELEGATE.getLoadedGuestCount();
+        } finally {
+            INDEX_LOCK.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addGuest(Guest guest) throws Exception {
+        ReentrantLock roomLock = roomLock(guest.getDesiredRoomID());
+        roomLock.lock();
+        try {
+            write(() -> {
+                DELEGATE.addGuest(guest);
+                return null;
+            });
+        } finally {
+            roomLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateGuest(Guest guest) throws Exception {
+        changeBooking(guest, false);
+    }
+
+    // Takes the stored guest's room lock, so a cancel cannot land between a rebooking's check
+    // of the stored guest and its update. Retried like changeBooking if the guest moved rooms
+    // before the lock was taken.
+    @Override
+    public void removeGuest(Guest guest) throws Exception {
+        while (true) {
+            Guest current = getGuestById(guest.getNationalID());
+            if (current == null) {
+                throw new Exception("Guest not found");
+            }
+            ReentrantLock roomLock = roomLock(current.getDesiredRoomID());
+            roomLock.lock();
+            try {
+                if (getGuestById(guest.getNationalID()) != current) {
+                    continue;
+                }
+                write(() -> {
+                    DELEGATE.removeGuest(guest);
+                    return null;
+                });
+                return;
+            } finally {
+                roomLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean bookGuest(Guest guest) throws Exception {
+        ReentrantLock roomLock = roomLock(guest.getDesiredRoomID());
+        roomLock.lock();
+        try {
+            if (read(() -> DELEGATE.hasOverlappingStay(guest.getDesiredRoomID(), guest.getStartDate(),
+                    guest.getNumberOfRentalDays(), null))) {
+                return false;
+            }
+            write(() -> {
+                DELEGATE.addGuest(guest);
+                return null;
+            });
+            return true;
+        } finally {
+            roomLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean rebookGuest(Guest guest) throws Exception {
+        return changeBooking(guest, true);
+    }
+
+    // Rows are parsed without any lock; the conflict sweep and the commit then run with every
+    // room locked, so no single booking can slip in between.
+    @Override
+    public ImportResult importGuests(String fileName, Set<String> roomIds) throws Exception {
+        ReservationBatch batch = DELEGATE.parseReservations(fileName);
+        for (ReentrantLock roomLock : ROOM_LOCKS) {
+            roomLock.lock();
+        }
+        try {
+            return write(() -> DELEGATE.commitReservations(batch, roomIds));
+        } finally {
+            for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+                ROOM_LOCKS[i].unlock();
+            }
+        }
+    }
+
+    // Locks both the room the guest is moving from and the one they are moving to, always in
+    // stripe order so that two sessions swapping rooms cannot deadlock. If the stored guest
+    // changed rooms before the locks were taken, the locks are released and taken again.
+    private boolean changeBooking(Guest guest, boolean checkOverlap) throws Exception {
+        while (true) {
+            Guest current = getGuestById(guest.getNationalID());
+            if (current == null) {
+                throw new Exception("Guest not found");
+            }
+            int first = stripe(current.getDesiredRoomID());
+            int second = stripe(guest.getDesiredRoomID());
+            Lock firstLock = ROOM_LOCKS[Math.min(first, second)];
+            Lock secondLock = ROOM_LOCKS[Math.max(first, second)];
+            firstLock.lock();
+            secondLock.lock();
+            try {
+                if (getGuestById(guest.getNationalID()) != current) {
+                    continue;
+                }
+                if (checkOverlap && read(() -> DELEGATE.hasOverlappingStay(guest.getDesiredRoomID(),
+                        guest.getStartDate(), guest.getNumberOfRentalDays(), guest.getNationalID()))) {
+                    return false;
+                }
+                write(() -> {
+                    DELEGATE.updateGuest(guest);
+                    return null;
+                });
+                return true;
+            } finally {
+                secondLock.unlock();
+                firstLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasOverlappingStay(String roomId, LocalDate startDate, int numberOfDays, String excludeGuestId) throws Exception {
+        return read(() -> DELEGATE.hasOverlappingStay(roomId, startDate, numberOfDays, excludeGuestId));
+    }
+
+    @Override
+    public boolean isRoomFree(String roomId, LocalDate startDate, LocalDate endDate) throws Exception {
+        return read(() -> DELEGATE.isRoomFree(roomId, startDate, endDate));
+    }
+
+    @Override
+    public List<LocalDate> findFreeWindows(String roomId, LocalDate fromDate, int numberOfDays, int limit, String excludeGuestId) throws Exception {
+        return read(() -> DELEGATE.findFreeWindows(roomId, fromDate, numberOfDays, limit, excludeGuestId));
+    }
+
+    @Override
+    public long getRentalDaysOfRoom(String roomId) throws Exception {
+        return read(() -> DELEGATE.getRentalDaysOfRoom(roomId));
+    }
+
+    @Override
+    public long getRentalDaysOfRoomInMonth(String roomId, YearMonth month) throws Exception {
+        return read(() -> DELEGATE.getRentalDaysOfRoomInMonth(roomId, month));
+    }
+
+    @Override
+    public List<Guest> findGuestsByPhoneNumber(String phoneNumber) throws Exception {
+        return read(() -> DELEGATE.findGuestsByPhoneNumber(phoneNumber));
+    }
+
+    @Override
+    public List<Guest> findGuestsByRoom(String roomId) throws Exception {
+        return read(() -> DELEGATE.findGuestsByRoom(roomId));
+    }
+
+    @Override
+    public List<Guest> findGuestsArrivingBetween(LocalDate fromDate, LocalDate toDate) throws Exception {
+        return read(() -> DELEGATE.findGuestsArrivingBetween(fromDate, toDate));
+    }
+
+    @Override
+    public List<Guest> searchGuestsByName(String query, int limit) throws Exception {
+        return read(() -> DELEGATE.searchGuestsByName(query, limit));
+    }
+
+    @Override
+    public void saveGuestsListToFile() throws Exception {
+        write(() -> {
+            DELEGATE.saveGuestsListToFile();
+            return null;
+        });
+    }
+
+    @Override
+    public void flush() throws Exception {
+        DELEGATE.flush();
+    }
+
+    private ReentrantLock roomLock(String roomId) {
+        return ROOM_LOCKS[stripe(roomId)];
+    }
+
+    private static int stripe(String roomId) {
+        return Math.floorMod(roomId.toUpperCase().hashCode(), LOCK_STRIPES);
+    }
+
+    private <T> T read(Action<T> action) throws Exception {
+        INDEX_LOCK.readLock().lock();
+        try {
+            return action.run();
+        } finally {
+            INDEX_LOCK.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Action<T> action) throws Exception {
+        INDEX_LOCK.writeLock().lock();
+        try {
+            return action.run();
+        } finally {
+            INDEX_LOCK.writeLock().unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action<T> {
+
+        T run() throws Exception;
+    }
+}
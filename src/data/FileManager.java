@@ -1,13 +1,23 @@
 package data;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 public class FileManager {
 
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
     private String fileName;
 
     public FileManager() {
@@ -26,10 +36,52 @@ public class FileManager {
         return result;
     }
 
+    // Reads the file line by line through a buffered reader and hands every line to the
+    // handler as soon as it is decoded, so only one line is held in memory at a time.
+    // Returns the number of lines read.
+    public int readDataFromFile(LineHandler handler) throws Exception {
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Files.newInputStream(new File(fileName).toPath()),
+                Charset.forName("utf-8")), READ_BUFFER_SIZE)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                handler.handle(line, ++lineNumber);
+            }
+        }
+        return lineNumber;
+    }
+
+    // Writes to a temporary file in the same directory, forces it to disk and renames it
+    // over the target, so a crash mid-write leaves either the old or the new file intact.
     public void saveDataToFile(String data) throws IOException {
-        Files.writeString(
-                new File(fileName).toPath(), data,
-                Charset.forName("utf-8")
-        );
+        saveDataToFile(Charset.forName("utf-8").encode(data));
+    }
+
+    public void saveDataToFile(ByteBuffer buffer) throws IOException {
+        Path target = new File(fileName).toPath().toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @FunctionalInterface
+    public interface LineHandler {
+
+        void handle(String line, int lineNumber) throws Exception;
     }
 }
@@ -1,92 +1,186 @@
 package data;
 
+import common.tools.FieldTokenizer;
 import core.entities.Guest;
+import core.entities.ImportResult;
 import core.interfaces.IGuest;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class GuestDAO implements IGuest {
 
-    private final List<Guest> GUEST_LIST = new ArrayList<>();
-    private final FileManager FILE_MANAGER;
+    // nationalID, fullName, birthdate, gender, phoneNumber, desiredRoomID, rentalDays, startDate, coTenant
+    static final int SNAPSHOT_RECORD_WIDTH = 8 + 4 + 4 + 1 + 8 + 4 + 4 + 4 + 4;
+    // Guest lines are parsed on fork-join workers, so each thread keeps its own tokenizer
+    private static final ThreadLocal<FieldTokenizer> GUEST_TOKENIZER
+            = ThreadLocal.withInitial(() -> new FieldTokenizer(','));
+
+    private final Map<String, Guest> GUEST_MAP = new HashMap<>();
+    private final TreeMap<String, Guest> ORDERED_GUESTS = new TreeMap<>();
+    private final StayIndex STAY_INDEX = new StayIndex();
+    private final RentalAggregates RENTAL_AGGREGATES = new RentalAggregates();
+    private final GuestLookupIndex LOOKUP_INDEX = new GuestLookupIndex();
+    private final GuestNameIndex NAME_INDEX = new GuestNameIndex();
+    // Volatile so that concurrent readers (see ConcurrentGuestDAO) see a fully built view
+    private volatile List<Guest> guestsView;
+    private final GuestFiles FILES;
 
     public GuestDAO(String fileName) throws Exception {
-        this.FILE_MANAGER = new FileManager(fileName);
-        loadData();
+        this.FILES = new GuestFiles(fileName, new IndexedGuests());
+    }
+
+    private void ensureLoaded() throws Exception {
+        FILES.ensureLoaded();
     }
 
+    // Reloads the guests from the files, dropping unsaved changes. Skipped when nothing has
+    // changed since the last load, neither in memory nor in the guest file or its change log.
     public final void loadData() throws Exception {
+        FILES.load();
+    }
+
+    static void writeGuest(SnapshotFile.Encoder encoder, Guest guest) {
+        encoder.putLong(Long.parseLong(guest.getNationalID()))
+                .putString(guest.getFullName())
+                .putDate(guest.getBirthdate())
+                .putByte(guest.getGender().equalsIgnoreCase("male") ? 0 : 1)
+                .putLong(Long.parseLong(guest.getPhoneNumber()))
+                .putString(guest.getDesiredRoomID())
+                .putInt(guest.getNumberOfRentalDays())
+                .putDate(guest.getStartDate())
+                .putString(guest.getNameOfCoTenant());
+    }
+
+    // Snapshot records were written from loaded guests, so they are restored unchecked: a
+    // stay that has begun since must still load
+    private static Guest readGuest(SnapshotFile.Decoder decoder) {
+        String guestID = zeroPad(decoder.getLong(), 12);
+        String fullName = decoder.getString();
+        LocalDate birthdate = decoder.getDate();
+        String gender = decoder.getByte() == 0 ? "Male" : "Female";
+        String phoneNumber = zeroPad(decoder.getLong(), 10);
+        String desiredRoomID = decoder.getString();
+        int numberOfRentalDays = decoder.getInt();
+        LocalDate startDate = decoder.getDate();
+        String nameOfCoTenant = decoder.getString();
+        return Guest.restore(guestID, fullName, birthdate, gender, phoneNumber, desiredRoomID, numberOfRentalDays, startDate, nameOfCoTenant);
+    }
+
+    static String zeroPad(long value, int width) {
+        String digits = Long.toString(value);
+        if (digits.length() >= width) {
+            return digits;
+        }
+        StringBuilder padded = new StringBuilder(width);
+        for (int i = digits.length(); i < width; i++) {
+            padded.append('0');
+        }
+        return padded.append(digits).toString();
+    }
+
+    public List<LineError> getLoadErrors() throws Exception {
+        return FILES.getLoadErrors();
+    }
+
+    // Parses one line of the guest file format as a new booking, whose stay must not have
+    // begun; used for imports
+    public static Guest parseGuest(String line) throws Exception {
+        return parseGuest(line, false);
+    }
+
+    // Parses one stored line of the guest file or its change log. A stay that has begun since
+    // the guest was booked still loads.
+    static Guest parseStoredGuest(String line) throws Exception {
+        return parseGuest(line, true);
+    }
+
+    private static Guest parseGuest(String line, boolean stored) throws Exception {
         String guestID, fullName, gender, phoneNumber, desiredRoomID, nameOfCoTenant;
         LocalDate birthdate, startDate;
         int numberOfRentalDays;
-        try {
-            GUEST_LIST.clear();
-            List<String> guestsData = FILE_MANAGER.readDataFromFile();
-            for (String e : guestsData) {
-                List<String> fieldsOfGuest = Arrays.asList(e.split(","));
-                guestID = fieldsOfGuest.get(0).trim();
-                fullName = fieldsOfGuest.get(1).trim();
-                birthdate = LocalDate.parse(fieldsOfGuest.get(2).trim(), DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-                gender = fieldsOfGuest.get(3).trim();
-                phoneNumber = fieldsOfGuest.get(4).trim();
-                desiredRoomID = fieldsOfGuest.get(5).trim();
-                numberOfRentalDays = Integer.parseInt(fieldsOfGuest.get(6).trim());
-                startDate = LocalDate.parse(fieldsOfGuest.get(7).trim(), DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-                if (fieldsOfGuest.size() > 8) {
-                    nameOfCoTenant = fieldsOfGuest.get(8).trim();
-                } else {
-                    nameOfCoTenant = "";
-                }
-                Guest guest = new Guest(guestID, fullName, birthdate, gender, phoneNumber, desiredRoomID, numberOfRentalDays, startDate, nameOfCoTenant);
-                GUEST_LIST.add(guest);
-            }
-        } catch (Exception e) {
-            throw new Exception(e.getMessage());
+        FieldTokenizer fieldsOfGuest = GUEST_TOKENIZER.get().reset(line);
+        if (fieldsOfGuest.size() < 8) {
+            throw new IllegalArgumentException("Missing field data.");
+        }
+        guestID = fieldsOfGuest.getString(0);
+        fullName = fieldsOfGuest.getString(1);
+        birthdate = fieldsOfGuest.getDate(2);
+        gender = fieldsOfGuest.getString(3);
+        phoneNumber = fieldsOfGuest.getString(4);
+        desiredRoomID = fieldsOfGuest.getString(5);
+        numberOfRentalDays = fieldsOfGuest.getInt(6);
+        startDate = fieldsOfGuest.getDate(7);
+        if (fieldsOfGuest.size() > 8) {
+            nameOfCoTenant = fieldsOfGuest.getString(8);
+        } else {
+            nameOfCoTenant = "";
         }
+        if (stored) {
+            return Guest.fromRecord(guestID, fullName, birthdate, gender, phoneNumber, desiredRoomID, numberOfRentalDays, startDate, nameOfCoTenant);
+        }
+        return new Guest(guestID, fullName, birthdate, gender, phoneNumber, desiredRoomID, numberOfRentalDays, startDate, nameOfCoTenant);
     }
 
     @Override
     public List<Guest> getGuests() throws Exception {
-        GUEST_LIST.sort((e1, e2) -> e1.getNationalID().compareToIgnoreCase(e2.getNationalID()));
-        return GUEST_LIST;
+        ensureLoaded();
+        return sortedGuests();
+    }
+
+    private List<Guest> sortedGuests() {
+        // The sorted view is rebuilt only after a write; readers share the same snapshot.
+        List<Guest> view = guestsView;
+        if (view == null) {
+            view = Collections.unmodifiableList(new ArrayList<>(ORDERED_GUESTS.values()));
+            guestsView = view;
+        }
+        return view;
     }
 
     @Override
     public Guest getGuestById(String id) throws Exception {
-        Guest guest = GUEST_LIST.stream()
-                .filter(e -> e.getNationalID()
-                .equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
-        return guest;
+        ensureLoaded();
+        return GUEST_MAP.get(id);
+    }
+
+    @Override
+    public int getLoadedGuestCount() {
+        return FILES.isLoaded() ? GUEST_MAP.size() : 0;
     }
 
     @Override
     public void addGuest(Guest guest) throws Exception {
-        GUEST_LIST.add(guest);
+        ensureLoaded();
+        if (GUEST_MAP.containsKey(guest.getNationalID())) {
+            throw new Exception("Guest already exists");
+        }
+        indexGuest(guest);
+        FILES.trackChange(guest.getNationalID(), GuestJournal.ADDED);
     }
 
     @Override
     public void updateGuest(Guest guest) throws Exception {
+        ensureLoaded();
         Guest gus = getGuestById(guest.getNationalID());
         if (gus != null) {
-            gus.setFullName(gus.getFullName());
-            gus.setBirthdate(gus.getBirthdate());
-            gus.setGender(gus.getGender());
-            gus.setPhoneNumber(gus.getPhoneNumber());
-            gus.setDesiredRoomID(gus.getDesiredRoomID());
-            gus.setNumberOfRentalDays(gus.getNumberOfRentalDays());
-            gus.setStartDate(gus.getStartDate());
-            gus.setNameOfCoTenant(gus.getNameOfCoTenant());
+            // The stored guest is replaced rather than mutated, so snapshots handed out
+            // earlier (getGuests, background compaction) never change under their readers.
+            unindexGuest(gus);
+            indexGuest(guest);
+            FILES.trackChange(guest.getNationalID(), GuestJournal.UPDATED);
         }
     }
 
     @Override
     public void removeGuest(Guest guest) throws Exception {
+        ensureLoaded();
         Guest gus = getGuestById(guest.getNationalID());
         if (gus == null) {
             throw new Exception("Guest not found");
@@ -94,16 +188,212 @@ public class GuestDAO implements IGuest {
         if (gus.getStartDate().isBefore(LocalDate.now()) || gus.getStartDate().isEqual(LocalDate.now())) {
             throw new Exception("The room booking for this guest cannot be cancelled");
         }
-        GUEST_LIST.remove(gus);
+        unindexGuest(gus);
+        FILES.trackChange(gus.getNationalID(), GuestJournal.REMOVED);
+    }
+
+    @Override
+    public boolean bookGuest(Guest guest) throws Exception {
+        ensureLoaded();
+        if (hasOverlappingStay(guest.getDesiredRoomID(), guest.getStartDate(), guest.getNumberOfRentalDays(), null)) {
+            return false;
+        }
+        addGuest(guest);
+        return true;
+    }
+
+    @Override
+    public boolean rebookGuest(Guest guest) throws Exception {
+        ensureLoaded();
+        if (getGuestById(guest.getNationalID()) == null) {
+            throw new Exception("Guest not found");
+        }
+        if (hasOverlappingStay(guest.getDesiredRoomID(), guest.getStartDate(), guest.getNumberOfRentalDays(), guest.getNationalID())) {
+            return false;
+        }
+        updateGuest(guest);
+        return true;
+    }
+
+    @Override
+    public ImportResult importGuests(String fileName, Set<String> roomIds) throws Exception {
+        return commitReservations(parseReservations(fileName), roomIds);
+    }
+
+    // Parses and validates the rows on the fork-join pool. Reads no DAO state, so it can run
+    // without holding any lock.
+    public ReservationBatch parseReservations(String fileName) throws Exception {
+        return GuestFiles.parseReservations(fileName);
+    }
+
+    public ImportResult commitReservations(ReservationBatch batch, Set<String> roomIds) throws Exception {
+        return FILES.commitReservations(batch, roomIds);
+    }
+
+    @Override
+    public boolean hasOverlappingStay(String roomId, LocalDate startDate, int numberOfDays, String excludeGuestId) throws Exception {
+        ensureLoaded();
+        return STAY_INDEX.hasOverlap(roomId, startDate, startDate.plusDays(numberOfDays - 1), excludeGuestId);
+    }
+
+    @Override
+    public boolean isRoomFree(String roomId, LocalDate startDate, LocalDate endDate) throws Exception {
+        ensureLoaded();
+        return STAY_INDEX.isFree(roomId, startDate, endDate);
+    }
+
+    @Override
+    public List<LocalDate> findFreeWindows(String roomId, LocalDate fromDate, int numberOfDays, int limit, String excludeGuestId) throws Exception {
+        ensureLoaded();
+        return STAY_INDEX.findFreeWindows(roomId, fromDate, numberOfDays, limit, excludeGuestId);
+    }
+
+    @Override
+    public long getRentalDaysOfRoom(String roomId) throws Exception {
+        ensureLoaded();
+        return RENTAL_AGGREGATES.getDaysOfRoom(roomId);
+    }
+
+    @Override
+    public long getRentalDaysOfRoomInMonth(String roomId, YearMonth month) throws Exception {
+        ensureLoaded();
+        return RENTAL_AGGREGATES.getDaysOfRoomInMonth(roomId, month);
+    }
+
+    @Override
+    public List<Guest> findGuestsByPhoneNumber(String phoneNumber) throws Exception {
+        ensureLoaded();
+        return LOOKUP_INDEX.findByPhoneNumber(phoneNumber);
+    }
+
+    @Override
+    public List<Guest> findGuestsByRoom(String roomId) throws Exception {
+        ensureLoaded();
+        return LOOKUP_INDEX.findByRoom(roomId);
+    }
+
+    @Override
+    public List<Guest> findGuestsArrivingBetween(LocalDate fromDate, LocalDate toDate) throws Exception {
+        ensureLoaded();
+        return LOOKUP_INDEX.findArrivingBetween(fromDate, toDate);
+    }
+
+    @Override
+    public List<Guest> searchGuestsByName(String query, int limit) throws Exception {
+        ensureLoaded();
+        List<Guest> guests = new ArrayList<>();
+        for (long nationalId : NAME_INDEX.search(query, limit)) {
+            guests.add(GUEST_MAP.get(zeroPad(nationalId, 12)));
+        }
+        return guests;
     }
 
     @Override
     public void saveGuestsListToFile() throws Exception {
-        List<String> stringObject = GUEST_LIST.stream()
-                .map(String::valueOf)
-                .collect(Collectors.toList());
-        String data = String.join("\n", stringObject);
-        FILE_MANAGER.saveDataToFile(data);
+        FILES.save();
+    }
+
+    @Override
+    public void flush() throws Exception {
+        WriteBehindSaver.getInstance().flush();
+    }
+
+    private void clearIndexes() {
+        GUEST_MAP.clear();
+        ORDERED_GUESTS.clear();
+        STAY_INDEX.clear();
+        RENTAL_AGGREGATES.clear();
+        LOOKUP_INDEX.clear();
+        NAME_INDEX.clear();
+        guestsView = null;
+    }
+
+    private void indexGuest(Guest guest) {
+        GUEST_MAP.put(guest.getNationalID(), guest);
+        ORDERED_GUESTS.put(guest.getNationalID(), guest);
+        STAY_INDEX.add(guest);
+        RENTAL_AGGREGATES.add(guest);
+        LOOKUP_INDEX.add(guest);
+        NAME_INDEX.add(Long.parseLong(guest.getNationalID()), guest.getFullName());
+        NAME_INDEX.add(Long.parseLong(guest.getNationalID()), guest.getNameOfCoTenant());
+        guestsView = null;
+    }
+
+    private void unindexGuest(Guest guest) {
+        GUEST_MAP.remove(guest.getNationalID());
+        ORDERED_GUESTS.remove(guest.getNationalID());
+        STAY_INDEX.remove(guest.getNationalID());
+        RENTAL_AGGREGATES.remove(guest);
+        LOOKUP_INDEX.remove(guest);
+        NAME_INDEX.remove(Long.parseLong(guest.getNationalID()), guest.getFullName());
+        NAME_INDEX.remove(Long.parseLong(guest.getNationalID()), guest.getNameOfCoTenant());
+        guestsView = null;
     }
 
+    // GuestFiles loading into and reading from the maps and indexes
+    private final class IndexedGuests implements GuestFiles.Store {
+
+        @Override
+        public void clear() {
+            clearIndexes();
+        }
+
+        @Override
+        public int size() {
+            return GUEST_MAP.size();
+        }
+
+        @Override
+        public boolean contains(String nationalID) {
+            return GUEST_MAP.containsKey(nationalID);
+        }
+
+        @Override
+        public Guest get(String nationalID) {
+            return GUEST_MAP.get(nationalID);
+        }
+
+        @Override
+        public void load(Guest guest) {
+            indexGuest(guest);
+        }
+
+        @Override
+        public void read(SnapshotFile.Decoder decoder) throws Exception {
+            indexGuest(readGuest(decoder));
+        }
+
+        @Override
+        public void baseLoaded() {
+        }
+
+        @Override
+        public void replace(Guest guest) {
+            remove(guest.getNationalID());
+            indexGuest(guest);
+        }
+
+        @Override
+        public void remove(String nationalID) {
+            Guest guest = GUEST_MAP.get(nationalID);
+            if (guest != null) {
+                unindexGuest(guest);
+            }
+        }
+
+        @Override
+        public void addAll(List<Guest> guests) {
+            guests.forEach(GuestDAO.this::indexGuest);
+        }
+
+        @Override
+        public List<Guest> snapshot() {
+            return sortedGuests();
+        }
+
+        @Override
+        public long[] stayRanges(String roomId) {
+            return STAY_INDEX.stayRanges(roomId);
+        }
+    }
 }
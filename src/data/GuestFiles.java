@@ -0,0 +1,322 @@
+package data;
+
+import common.metrics.Metrics;
+import core.entities.Guest;
+import core.entities.ImportResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// The files behind a guest store: the guest file, its change log and its snapshot. Loads
+// them into the store, keeps the guests changed since the last save and queues them for the
+// change log, and checks imported reservations against the store's bookings. GuestDAO and
+// ColumnarGuestDAO share it and differ only in how they hold the guests (see Store).
+//
+// Not thread-safe apart from ensureLoaded; the stores call it under their own locks.
+final class GuestFiles {
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final FileManager FILE_MANAGER;
+    private final GuestJournal JOURNAL;
+    private final SnapshotFile SNAPSHOT;
+    private final Store STORE;
+    // Guests changed since the last save, in change order, with the GuestJournal operation
+    private final Map<String, Character> PENDING_CHANGES = new LinkedHashMap<>();
+    private List<LineError> loadErrors = Collections.emptyList();
+    // False until the first call that needs guests
+    private volatile boolean loaded;
+    // Guest file and change log lengths and modification times as of the last load
+    private long[] loadedStamp;
+
+    GuestFiles(String fileName, Store store) {
+        this.FILE_MANAGER = new FileManager(fileName);
+        this.JOURNAL = new GuestJournal(fileName);
+        this.SNAPSHOT = new SnapshotFile(fileName, GuestDAO.SNAPSHOT_RECORD_WIDTH);
+        this.STORE = store;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    void ensureLoaded() throws Exception {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                }
+            }
+        }
+    }
+
+    // Reloads the guests from the files, dropping unsaved changes. Skipped when nothing has
+    // changed since the last load, neither in memory nor in the guest file or its change log.
+    synchronized void load() throws Exception {
+        long start = Metrics.start();
+        // Change log appends and compactions queued by an earlier instance must land first
+        WriteBehindSaver.getInstance().awaitPending();
+        long[] sources = sourceStamp();
+        if (SnapshotFile.ENABLED && loaded && PENDING_CHANGES.isEmpty() && Arrays.equals(sources, loadedStamp)) {
+            Metrics.increment("guest.load.reused");
+            return;
+        }
+        loaded = false;
+        STORE.clear();
+        PENDING_CHANGES.clear();
+        if (!loadSnapshot()) {
+            STORE.clear();
+            long[] stamp = SNAPSHOT.stampSource();
+            loadErrors = new ChunkedLineParser<>(GuestDAO::parseStoredGuest).parse(FILE_MANAGER, (guest, lineNumber) -> {
+                if (STORE.contains(guest.getNationalID())) {
+                    throw new IllegalArgumentException("Duplicate national ID found: " + guest.getNationalID());
+                }
+                STORE.load(guest);
+            });
+            // Copied now: the change log replay below adds to loadErrors
+            writeSnapshot(STORE.snapshot(), stamp, new ArrayList<>(loadErrors));
+        }
+        STORE.baseLoaded();
+        loadErrors.addAll(JOURNAL.replay((operation, payload, lineNumber) -> {
+            try {
+                replayChange(operation, payload);
+            } catch (Exception e) {
+                loadErrors.add(new LineError(lineNumber, "Change log: " + e.getMessage()));
+            }
+        }));
+        Metrics.record("guest.load", start);
+        Metrics.add("guest.load.succeeded", STORE.size());
+        Metrics.add("guest.load.failed", loadErrors.size());
+        if (Metrics.ENABLED) {
+            loadErrors.forEach(error -> Metrics.fail("guest.load.failed", error.getMessage()));
+        }
+        loadedStamp = sources;
+        loaded = true;
+
+        if (!loadErrors.isEmpty()) {
+            System.out.println(STORE.size() + " guests successfully loaded.");
+            System.out.println(loadErrors.size() + " entries failed.");
+            loadErrors.stream()
+                    .limit(MAX_REPORTED_ERRORS)
+                    .forEach(System.out::println);
+            if (loadErrors.size() > MAX_REPORTED_ERRORS) {
+                System.out.println("... " + (loadErrors.size() - MAX_REPORTED_ERRORS) + " more.");
+            }
+        }
+    }
+
+    List<LineError> getLoadErrors() throws Exception {
+        ensureLoaded();
+        return loadErrors;
+    }
+
+    private long[] sourceStamp() {
+        long[] base = SNAPSHOT.stampSource();
+        long[] journal = JOURNAL.stamp();
+        long[] stamp = Arrays.copyOf(base, base.length + journal.length);
+        System.arraycopy(journal, 0, stamp, base.length, journal.length);
+        return stamp;
+    }
+
+    // The guest file lines skipped when the snapshot was written are reported again, ahead
+    // of the records that no longer load
+    private boolean loadSnapshot() {
+        List<LineError> errors = new ArrayList<>();
+        try {
+            List<LineError> skippedLines = SNAPSHOT.read((decoder, recordNumber) -> {
+                try {
+                    STORE.read(decoder);
+                } catch (Exception e) {
+                    errors.add(new LineError(recordNumber, e.getMessage()));
+                }
+            });
+            if (skippedLines != null) {
+                skippedLines.addAll(errors);
+                loadErrors = skippedLines;
+                return true;
+            }
+        } catch (Exception e) {
+            // Unreadable snapshot: fall back to the text file
+        }
+        return false;
+    }
+
+    // Queued behind any pending compaction, so the stamp matches the base file it describes
+    private void writeSnapshot(List<Guest> guests, long[] stamp, List<LineError> skippedLines) {
+        WriteBehindSaver.getInstance().submit(() -> SNAPSHOT.write(guests, GuestDAO::writeGuest,
+                stamp == null ? SNAPSHOT.stampSource() : stamp, skippedLines));
+    }
+
+    private void replayChange(char operation, String payload) throws Exception {
+        if (operation == GuestJournal.REMOVED) {
+            STORE.remove(payload.trim());
+            return;
+        }
+        STORE.replace(GuestDAO.parseStoredGuest(payload));
+    }
+
+    void trackChange(String nationalID, char operation) {
+        Character previous = PENDING_CHANGES.get(nationalID);
+        if (previous == null) {
+            PENDING_CHANGES.put(nationalID, operation);
+        } else if (previous == GuestJournal.ADDED) {
+            // Still unsaved: an update keeps it an addition, a removal cancels it out
+            if (operation == GuestJournal.REMOVED) {
+                PENDING_CHANGES.remove(nationalID);
+            }
+        } else {
+            PENDING_CHANGES.put(nationalID, operation == GuestJournal.ADDED ? GuestJournal.UPDATED : operation);
+        }
+    }
+
+    // Queues only the guests changed since the last save for the change log; the full
+    // guest file is rewritten in the background once the log has grown large enough.
+    // Nothing to save before the guests are loaded.
+    // The guest file is never rewritten while lines of it or of the change log failed to
+    // load: the rewrite holds only the guests in the store and would delete those lines.
+    // Nothing here waits on the disk; a failed background write is reported on the next
+    // save or flush. The change log keeps the entries it failed to write and writes them
+    // again with the next save's, so they are queued before that failure is reported.
+    void save() throws Exception {
+        if (loaded) {
+            queueChanges();
+        }
+        WriteBehindSaver.getInstance().checkFailure();
+    }
+
+    private void queueChanges() {
+        List<String> entries = new ArrayList<>(PENDING_CHANGES.size());
+        for (Map.Entry<String, Character> change : PENDING_CHANGES.entrySet()) {
+            String payload = change.getValue() == GuestJournal.REMOVED
+                    ? change.getKey()
+                    : STORE.get(change.getKey()).toString();
+            entries.add(GuestJournal.entry(change.getValue(), payload));
+        }
+        JOURNAL.append(entries);
+        PENDING_CHANGES.clear();
+        if (loadErrors.isEmpty() && JOURNAL.needsCompaction(STORE.size())) {
+            List<Guest> snapshot = STORE.snapshot();
+            JOURNAL.compact(snapshot);
+            writeSnapshot(snapshot, null, Collections.emptyList());
+        }
+    }
+
+    // Parses and validates the rows on the fork-join pool. Reads no store state, so it can
+    // run without holding any lock.
+    static ReservationBatch parseReservations(String fileName) throws Exception {
+        ReservationBatch batch = new ReservationBatch();
+        batch.errors = new ChunkedLineParser<>(GuestDAO::parseGuest).parse(new FileManager(fileName), batch::add);
+        return batch;
+    }
+
+    // Accepts the rows for a known room and a new guest whose stay overlaps neither an existing
+    // booking nor an accepted row of the batch, then adds all of them in one step. Within the
+    // batch the earlier check-in wins, and the earlier line on the same check-in date.
+    ImportResult commitReservations(ReservationBatch batch, Set<String> roomIds) throws Exception {
+        ensureLoaded();
+        SortedMap<Integer, String> rejections = new TreeMap<>();
+        for (LineError error : batch.errors) {
+            rejections.put(error.getLineNumber(), error.getMessage());
+        }
+        Map<String, List<Integer>> rowsByRoom = new HashMap<>();
+        Set<String> batchIds = new HashSet<>();
+        for (int row = 0; row < batch.size(); row++) {
+            Guest guest = batch.guests.get(row);
+            int lineNumber = batch.lineNumbers.get(row);
+            if (!roomIds.contains(guest.getDesiredRoomID())) {
+                rejections.put(lineNumber, "Room not found!");
+            } else if (STORE.contains(guest.getNationalID())) {
+                rejections.put(lineNumber, "Guest already exists");
+            } else if (!batchIds.add(guest.getNationalID())) {
+                rejections.put(lineNumber, "Duplicate national ID found: " + guest.getNationalID());
+            } else {
+                rowsByRoom.computeIfAbsent(guest.getDesiredRoomID().toUpperCase(), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<Guest> accepted = new ArrayList<>();
+        rowsByRoom.forEach((roomId, rows) -> sweepRoom(roomId, rows, batch, accepted, rejections));
+        STORE.addAll(accepted);
+        for (Guest guest : accepted) {
+            trackChange(guest.getNationalID(), GuestJournal.ADDED);
+        }
+        return new ImportResult(accepted.size(), rejections);
+    }
+
+    // One pass over the room's batch rows and existing stays, both in check-in order. The
+    // existing stays that started by a row's check-in are folded into their latest end day;
+    // the row clashes with them if that day is not before its check-in, or with the next
+    // existing stay if it starts before the row ends.
+    private void sweepRoom(String roomId, List<Integer> rows, ReservationBatch batch,
+            List<Guest> accepted, SortedMap<Integer, String> rejections) {
+        rows.sort(Comparator.comparingLong(row -> batch.guests.get(row).getStartDate().toEpochDay()));
+        long[] existing = STORE.stayRanges(roomId);
+        int next = 0;
+        long existingEnd = Long.MIN_VALUE;
+        long acceptedEnd = Long.MIN_VALUE;
+        int acceptedLine = 0;
+        for (int row : rows) {
+            Guest guest = batch.guests.get(row);
+            long start = guest.getStartDate().toEpochDay();
+            long end = start + guest.getNumberOfRentalDays() - 1;
+            while (next < existing.length && existing[next] <= start) {
+                existingEnd = Math.max(existingEnd, existing[next + 1]);
+                next += 2;
+            }
+            int lineNumber = batch.lineNumbers.get(row);
+            if (existingEnd >= start || (next < existing.length && existing[next] <= end)) {
+                rejections.put(lineNumber, "Room is not available for the requested dates");
+            } else if (acceptedEnd >= start) {
+                rejections.put(lineNumber, "Overlaps the stay on line " + acceptedLine);
+            } else {
+                accepted.add(guest);
+                acceptedEnd = end;
+                acceptedLine = lineNumber;
+            }
+        }
+    }
+
+    // How a guest store holds its guests, as loading, saving and importing need it
+    interface Store {
+
+        void clear();
+
+        int size();
+
+        boolean contains(String nationalID);
+
+        Guest get(String nationalID);
+
+        // Adds a guest of the guest file; the store may finish indexing it in baseLoaded
+        void load(Guest guest);
+
+        // Adds the guest of one snapshot record; throws if the record is not a valid guest
+        void read(SnapshotFile.Decoder decoder) throws Exception;
+
+        // Called once the guest file or its snapshot is in, before the change log is replayed
+        void baseLoaded();
+
+        // Adds the guest, replacing any guest with the same national ID
+        void replace(Guest guest);
+
+        void remove(String nationalID);
+
+        // Adds the guests an import accepted, none of them stored yet
+        void addAll(List<Guest> guests);
+
+        // The guests in national ID order, as a list the store no longer changes
+        List<Guest> snapshot();
+
+        // Start and end epoch days of the room's stays, in check-in order
+        long[] stayRanges(String roomId);
+    }
+}
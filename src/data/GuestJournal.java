@@ -0,0 +1,209 @@
+package data;
+
+import core.entities.Guest;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Change log kept next to the guest file. Saves append one entry per changed guest;
+// compaction folds the log into the base file. The active log is first renamed to a sealed
+// log, so saves made while the base file is rewritten go to a fresh log and are never lost.
+// Loading replays base file, sealed log, then active log.
+//
+// All file work runs on the WriteBehindSaver thread. Entries are buffered in batches; each
+// batch is written with a single fsync'd append, and a compaction closes the open batch so
+// that entries saved after its snapshot are written after it. A batch that fails to write is
+// kept and written again ahead of the next one, until a compaction rewrites the base file.
+public class GuestJournal {
+
+    public static final char ADDED = 'A';
+    public static final char UPDATED = 'U';
+    public static final char REMOVED = 'D';
+
+    private static final String JOURNAL_SUFFIX = ".log";
+    private static final String SEALED_SUFFIX = ".log.compacting";
+    private static final char SEPARATOR = ';';
+    private static final int MIN_COMPACTION_ENTRIES = 64;
+
+    private final String BASE_FILE;
+    private final File JOURNAL_FILE;
+    private final File SEALED_FILE;
+    private final WriteBehindSaver SAVER = WriteBehindSaver.getInstance();
+    private int journalEntries;
+    private Batch openBatch;
+    // Entries of batches that failed to write, in order; touched by the saver thread
+    private List<String> unwritten = new ArrayList<>();
+
+    public GuestJournal(String baseFileName) {
+        this.BASE_FILE = baseFileName;
+        this.JOURNAL_FILE = new File(baseFileName + JOURNAL_SUFFIX);
+        this.SEALED_FILE = new File(baseFileName + SEALED_SUFFIX);
+    }
+
+    // Callers must wait for WriteBehindSaver.awaitPending first, so that writes queued by
+    // an earlier instance on the same file have landed. Lines that are no entry at all, such
+    // as the half-written last line of an append cut short by a crash, are skipped and
+    // returned.
+    public List<LineError> replay(EntryHandler handler) throws Exception {
+        List<LineError> malformed = new ArrayList<>();
+        journalEntries = 0;
+        // The entries not written yet belong to the changes the reload drops
+        takeUnwritten();
+        for (File file : new File[]{SEALED_FILE, JOURNAL_FILE}) {
+            if (!file.exists()) {
+                continue;
+            }
+            int lineCount = new FileManager(file.getPath()).readDataFromFile((line, lineNumber) -> {
+                if (line.trim().isEmpty()) {
+                    return;
+                }
+                int separator = line.indexOf(SEPARATOR);
+                if (separator != 1) {
+                    malformed.add(new LineError(lineNumber, "Change log: malformed entry in " + file.getName()));
+                    return;
+                }
+                handler.handle(line.charAt(0), line.substring(separator + 1), lineNumber);
+            });
+            if (file == JOURNAL_FILE) {
+                journalEntries = lineCount;
+            }
+        }
+        return malformed;
+    }
+
+    public synchronized void append(List<String> entries) {
+        if (entries.isEmpty() && unwritten.isEmpty()) {
+            return;
+        }
+        if (openBatch == null || !openBatch.add(entries)) {
+            Batch batch = new Batch();
+            batch.add(entries);
+            openBatch = batch;
+            SAVER.submit(() -> writeBatch(batch));
+        }
+        journalEntries += entries.size();
+    }
+
+    // Lengths and modification times of the sealed and the active log, zero while absent
+    public long[] stamp() {
+        return new long[]{SEALED_FILE.length(), SEALED_FILE.lastModified(),
+            JOURNAL_FILE.length(), JOURNAL_FILE.lastModified()};
+    }
+
+    public static String entry(char operation, String payload) {
+        return operation + String.valueOf(SEPARATOR) + payload;
+    }
+
+    public boolean needsCompaction(int liveRecords) {
+        return journalEntries >= Math.max(MIN_COMPACTION_ENTRIES, liveRecords / 4);
+    }
+
+    // The snapshot is formatted on the saver thread, so it must be a list the caller no
+    // longer modifies, holding guests that are replaced rather than mutated on update.
+    public synchronized void compact(List<Guest> snapshot) {
+        openBatch = null;
+        journalEntries = 0;
+        SAVER.submit(() -> {
+            seal();
+            List<String> lines = new ArrayList<>(snapshot.size());
+            for (Guest guest : snapshot) {
+                lines.add(guest.toString());
+            }
+            new FileManager(BASE_FILE).saveDataToFile(String.join("\n", lines));
+            Files.deleteIfExists(SEALED_FILE.toPath());
+            // The snapshot was taken after every change still unwritten, so the base has them
+            takeUnwritten();
+        });
+    }
+
+    private void writeBatch(Batch batch) throws IOException {
+        List<String> entries = takeUnwritten();
+        entries.addAll(batch.close());
+        StringBuilder data = new StringBuilder();
+        for (String entry : entries) {
+            data.append(entry).append(System.lineSeparator());
+        }
+        try (FileChannel channel = FileChannel.open(JOURNAL_FILE.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long length = channel.size();
+            try {
+                // An append cut short by a crash leaves its line without a separator; the next
+                // entry must not be glued to it, or replay would drop both
+                ByteBuffer last = ByteBuffer.allocate(1);
+                if (length > 0 && channel.read(last, length - 1) == 1 && last.get(0) != '\n') {
+                    data.insert(0, System.lineSeparator());
+                }
+                ByteBuffer buffer = Charset.forName("utf-8").encode(data.toString());
+                channel.position(length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            } catch (IOException e) {
+                // Drop whatever part of the batch made it, so the retry does not follow a torn line
+                channel.truncate(length);
+                throw e;
+            }
+        } catch (IOException e) {
+            keepUnwritten(entries);
+            throw new IOException(entries.size() + " change log entries not written, kept for the next save: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private synchronized List<String> takeUnwritten() {
+        List<String> entries = unwritten;
+        unwritten = new ArrayList<>();
+        return entries;
+    }
+
+    private synchronized void keepUnwritten(List<String> entries) {
+        entries.addAll(unwritten);
+        unwritten = entries;
+    }
+
+    private void seal() throws IOException {
+        if (!JOURNAL_FILE.exists()) {
+            return;
+        }
+        if (SEALED_FILE.exists()) {
+            // Left over from a compaction that failed; keep its entries until the base is rewritten
+            Files.write(SEALED_FILE.toPath(), Files.readAllBytes(JOURNAL_FILE.toPath()), StandardOpenOption.APPEND);
+            Files.delete(JOURNAL_FILE.toPath());
+        } else {
+            Files.move(JOURNAL_FILE.toPath(), SEALED_FILE.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryHandler {
+
+        void handle(char operation, String payload, int lineNumber) throws Exception;
+    }
+
+    private static final class Batch {
+
+        private final List<String> entries = new ArrayList<>();
+        private boolean closed;
+
+        private synchronized boolean add(List<String> newEntries) {
+            if (closed) {
+                return false;
+            }
+            entries.addAll(newEntries);
+            return true;
+        }
+
+        private synchronized List<String> close() {
+            closed = true;
+            return entries;
+        }
+    }
+}
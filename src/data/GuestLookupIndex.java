@@ -0,0 +1,90 @@
+package data;
+
+import core.entities.Guest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Secondary indexes for the front desk searches: guests by phone number, by room and by
+// check-in date. Each lookup is a hash or tree descent plus the guests it returns, so none
+// of them walks the whole guest list. Results are copies, ordered by check-in date and then
+// national ID (by national ID alone for a phone number).
+public class GuestLookupIndex {
+
+    private final Map<String, NavigableMap<String, Guest>> BY_PHONE = new HashMap<>();
+    private final Map<String, NavigableMap<LocalDate, NavigableMap<String, Guest>>> BY_ROOM = new HashMap<>();
+    private final NavigableMap<LocalDate, NavigableMap<String, Guest>> BY_START = new TreeMap<>();
+
+    public void clear() {
+        BY_PHONE.clear();
+        BY_ROOM.clear();
+        BY_START.clear();
+    }
+
+    public void add(Guest guest) {
+        BY_PHONE.computeIfAbsent(guest.getPhoneNumber(), k -> new TreeMap<>()).put(guest.getNationalID(), guest);
+        addByStart(BY_ROOM.computeIfAbsent(guest.getDesiredRoomID().toUpperCase(), k -> new TreeMap<>()), guest);
+        addByStart(BY_START, guest);
+    }
+
+    public void remove(Guest guest) {
+        NavigableMap<String, Guest> byId = BY_PHONE.get(guest.getPhoneNumber());
+        if (byId != null) {
+            byId.remove(guest.getNationalID());
+            if (byId.isEmpty()) {
+                BY_PHONE.remove(guest.getPhoneNumber());
+            }
+        }
+        String roomId = guest.getDesiredRoomID().toUpperCase();
+        NavigableMap<LocalDate, NavigableMap<String, Guest>> roomStays = BY_ROOM.get(roomId);
+        if (roomStays != null) {
+            removeByStart(roomStays, guest);
+            if (roomStays.isEmpty()) {
+                BY_ROOM.remove(roomId);
+            }
+        }
+        removeByStart(BY_START, guest);
+    }
+
+    public List<Guest> findByPhoneNumber(String phoneNumber) {
+        NavigableMap<String, Guest> byId = BY_PHONE.get(phoneNumber);
+        return byId == null ? new ArrayList<>() : new ArrayList<>(byId.values());
+    }
+
+    public List<Guest> findByRoom(String roomId) {
+        NavigableMap<LocalDate, NavigableMap<String, Guest>> roomStays = BY_ROOM.get(roomId.toUpperCase());
+        return roomStays == null ? new ArrayList<>() : flatten(roomStays);
+    }
+
+    // Guests checking in from fromDate to toDate, both included
+    public List<Guest> findArrivingBetween(LocalDate fromDate, LocalDate toDate) {
+        if (toDate.isBefore(fromDate)) {
+            return new ArrayList<>();
+        }
+        return flatten(BY_START.subMap(fromDate, true, toDate, true));
+    }
+
+    private static void addByStart(NavigableMap<LocalDate, NavigableMap<String, Guest>> byStart, Guest guest) {
+        byStart.computeIfAbsent(guest.getStartDate(), k -> new TreeMap<>()).put(guest.getNationalID(), guest);
+    }
+
+    private static void removeByStart(NavigableMap<LocalDate, NavigableMap<String, Guest>> byStart, Guest guest) {
+        NavigableMap<String, Guest> byId = byStart.get(guest.getStartDate());
+        if (byId != null) {
+            byId.remove(guest.getNationalID());
+            if (byId.isEmpty()) {
+                byStart.remove(guest.getStartDate());
+            }
+        }
+    }
+
+    private static List<Guest> flatten(Map<LocalDate, NavigableMap<String, Guest>> byStart) {
+        List<Guest> guests = new ArrayList<>();
+        byStart.values().forEach(byId -> guests.addAll(byId.values()));
+        return guests;
+    }
+}
@@ -0,0 +1,511 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Trigram index over guest names (full names and co-tenants) for searches by part of a
+// name. Each distinct name is stored once, lower-cased, with the national IDs of the guests
+// holding it; every word of it is cut into trigrams, " ng", "ngu", "guy", ..., "en ", and
+// each trigram lists the names containing it.
+//
+// A query is cut the same way but with no word closed, so that "nguy" shares all of its
+// trigrams with "nguyen" and "ng v" all of its with "nguyen van". Names sharing enough of
+// the query's trigrams are then checked and ranked: the whole name, a name starting with the
+// query, names whose words start with the query's words, and last names a few typos away
+// (more typos allowed for longer queries), closest first.
+//
+// A name is dropped with its trigram entries once no guest holds it, and its ID is handed
+// to the next new name, so renames and cancellations in a long session do not add up. An
+// update keeping the only guest's name drops and adds it again, a binary search and a shift
+// per trigram.
+public class GuestNameIndex {
+
+    // Shorter queries share no trigram with anything
+    public static final int MIN_QUERY_LENGTH = 2;
+
+    // Co-tenant placeholder written for guests staying alone
+    private static final String NO_NAME = "none";
+    private static final int EXACT = 0;
+    private static final int NAME_PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int TYPO = 3;
+
+    private final Map<String, Integer> NAME_IDS = new HashMap<>();
+    private String[] names = new String[64];
+    private long[][] holders = new long[64][];
+    private int[] holderCounts = new int[64];
+    // Letters a to z occurring in each name, one bit each, and the name's length: enough to
+    // rule most candidates out without reading the name itself
+    private int[] letterMasks = new int[64];
+    private int[] nameLengths = new int[64];
+    private int nameCount;
+    // Trigram (three chars packed into a long) to its slot in POSTINGS
+    private final LongIntHashMap TRIGRAMS = new LongIntHashMap();
+    // Name IDs containing the trigram, ascending; a reused ID is inserted in its place
+    private final List<int[]> POSTINGS = new ArrayList<>();
+    private int[] postingSizes = new int[64];
+    // Name IDs and posting slots given up by dropped names, taken before new ones
+    private int[] freeNameIds = new int[16];
+    private int freeNameCount;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+
+    public void clear() {
+        NAME_IDS.clear();
+        names = new String[64];
+        holders = new long[64][];
+        holderCounts = new int[64];
+        letterMasks = new int[64];
+        nameLengths = new int[64];
+        nameCount = 0;
+        TRIGRAMS.clear();
+        POSTINGS.clear();
+        postingSizes = new int[64];
+        freeNameCount = 0;
+        freeSlotCount = 0;
+    }
+
+    // Distinct names held by at least one guest
+    int size() {
+        return NAME_IDS.size();
+    }
+
+    int trigramCount() {
+        return TRIGRAMS.size();
+    }
+
+    public void add(long nationalId, String name) {
+        String normalized = normalize(name);
+        if (normalized.length() < MIN_QUERY_LENGTH || normalized.equals(NO_NAME)) {
+            return;
+        }
+        Integer nameId = NAME_IDS.get(normalized);
+        if (nameId == null) {
+            nameId = addName(normalized);
+        }
+        long[] ids = holders[nameId];
+        if (ids == null) {
+            ids = new long[1];
+        } else if (holderCounts[nameId] == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[holderCounts[nameId]++] = nationalId;
+        holders[nameId] = ids;
+    }
+
+    public void remove(long nationalId, String name) {
+        Integer nameId = NAME_IDS.get(normalize(name));
+        if (nameId == null) {
+            return;
+        }
+        long[] ids = holders[nameId];
+        int count = holderCounts[nameId];
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == nationalId) {
+                ids[i] = ids[count - 1];
+                if (--holderCounts[nameId] == 0) {
+                    removeName(nameId);
+                }
+                return;
+            }
+        }
+    }
+
+    // National IDs of the guests with the best matching names, at most limit of them. A guest
+    // matching by both names is listed once, at the better rank; guests sharing a name are in
+    // national ID order.
+    public List<Long> search(String query, int limit) {
+        List<Long> found = new ArrayList<>();
+        Query parsed = new Query(normalize(query));
+        if (parsed.letters < MIN_QUERY_LENGTH || limit <= 0) {
+            return found;
+        }
+        long[] trigrams = trigramsOf(parsed.text, false);
+        // A typo takes at most four of the query's trigrams (a swap of two neighbours). When
+        // the typos allowed could take them all, or the query has none, any name may match.
+        int threshold = Math.max(0, trigrams.length - 4 * parsed.typos);
+        // A guest holds at most two names, so twice as many names always fill the list even
+        // when guests turn up under both
+        int kept = (int) Math.min(Integer.MAX_VALUE, 2L * limit);
+
+        // Count the query trigrams each name shares; those sharing at least threshold are
+        // the candidates, then bucketed by that count
+        int[] shared = new int[nameCount];
+        int[] candidates = new int[16];
+        int candidateCount = 0;
+        if (threshold == 0) {
+            candidates = new int[Math.max(1, nameCount)];
+            for (int nameId = 0; nameId < nameCount; nameId++) {
+                if (holderCounts[nameId] > 0) {
+                    candidates[candidateCount++] = nameId;
+                }
+            }
+        }
+        for (long trigram : trigrams) {
+            int slot = TRIGRAMS.get(trigram);
+            if (slot == LongIntHashMap.MISSING) {
+                continue;
+            }
+            int[] nameIds = POSTINGS.get(slot);
+            for (int i = 0; i < postingSizes[slot]; i++) {
+                int nameId = nameIds[i];
+                if (++shared[nameId] == threshold) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    }
+                    candidates[candidateCount++] = nameId;
+                }
+            }
+        }
+        int[] bucketStarts = new int[trigrams.length + 2];
+        for (int i = 0; i < candidateCount; i++) {
+            bucketStarts[shared[candidates[i]] + 1]++;
+        }
+        for (int count = 1; count < bucketStarts.length; count++) {
+            bucketStarts[count] += bucketStarts[count - 1];
+        }
+        int[] bucketed = new int[candidateCount];
+        int[] next = Arrays.copyOf(bucketStarts, bucketStarts.length);
+        for (int i = 0; i < candidateCount; i++) {
+            bucketed[next[shared[candidates[i]]]++] = candidates[i];
+        }
+
+        // Check the candidates sharing the most trigrams first, the worst match kept on top.
+        // A name missing some of the query's trigrams is typos away from it, at least one per
+        // four missing trigrams, so once the list is full, names missing too many to beat
+        // its worst entry need no check.
+        PriorityQueue<Match> best = new PriorityQueue<>((first, second) -> compare(second, first));
+        for (int count = trigrams.length; count >= threshold; count--) {
+            int fewestTypos = (trigrams.length - count + 3) / 4;
+            Match worst = best.size() == kept ? best.peek() : null;
+            if (worst != null && fewestTypos > 0 && (worst.rank < TYPO || fewestTypos > worst.distance)) {
+                break;
+            }
+            for (int i = bucketStarts[count]; i < bucketStarts[count + 1]; i++) {
+                int nameId = bucketed[i];
+                // Each query letter the name lacks altogether takes a typo
+                if (Integer.bitCount(parsed.letterMask & ~letterMasks[nameId]) > parsed.typos) {
+                    continue;
+                }
+                worst = best.size() == kept ? best.peek() : null;
+                if (worst != null && !canBeat(worst, count == trigrams.length, fewestTypos, nameId, parsed)) {
+                    continue;
+                }
+                int rank = parsed.rank(names[nameId]);
+                if (worst != null && rank > worst.rank) {
+                    continue;
+                }
+                int distance = rank == TYPO ? parsed.typoDistance(names[nameId]) : 0;
+                if (distance > parsed.typos) {
+                    continue;
+                }
+                Match match = new Match(nameId, rank, distance);
+                if (worst == null) {
+                    best.add(match);
+                } else if (compare(match, worst) < 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+        }
+
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(this::compare);
+        Set<Long> seen = new LinkedHashSet<>();
+        for (Match match : ranked) {
+            long[] ids = Arrays.copyOf(holders[match.nameId], holderCounts[match.nameId]);
+            Arrays.sort(ids);
+            for (long id : ids) {
+                if (seen.size() < limit) {
+                    seen.add(id);
+                }
+            }
+        }
+        found.addAll(seen);
+        return found;
+    }
+
+    // Whether the name might rank above worst, judged by its length and by how many of the
+    // query's trigrams it has: the prefix ranks need them all, a typo match at least
+    // fewestTypos typos
+    private boolean canBeat(Match worst, boolean allShared, int fewestTypos, int nameId, Query query) {
+        int rank = !allShared ? TYPO : nameLengths[nameId] == query.text.length() ? EXACT : NAME_PREFIX;
+        int distance = allShared ? 0 : fewestTypos;
+        if (rank != worst.rank) {
+            return rank < worst.rank;
+        }
+        if (distance != worst.distance) {
+            return distance < worst.distance;
+        }
+        return nameLengths[nameId] <= names[worst.nameId].length();
+    }
+
+    // Better rank first, then fewer typos, then the shorter name, then alphabetical order
+    private int compare(Match first, Match second) {
+        if (first.rank != second.rank) {
+            return Integer.compare(first.rank, second.rank);
+        }
+        if (first.distance != second.distance) {
+            return Integer.compare(first.distance, second.distance);
+        }
+        String firstName = names[first.nameId];
+        String secondName = names[second.nameId];
+        if (firstName.length() != secondName.length()) {
+            return Integer.compare(firstName.length(), secondName.length());
+        }
+        return firstName.compareTo(secondName);
+    }
+
+    private int addName(String normalized) {
+        int nameId;
+        if (freeNameCount > 0) {
+            nameId = freeNameIds[--freeNameCount];
+        } else {
+            nameId = nameCount++;
+            if (nameId == names.length) {
+                names = Arrays.copyOf(names, nameId * 2);
+                holders = Arrays.copyOf(holders, nameId * 2);
+                holderCounts = Arrays.copyOf(holderCounts, nameId * 2);
+                letterMasks = Arrays.copyOf(letterMasks, nameId * 2);
+                nameLengths = Arrays.copyOf(nameLengths, nameId * 2);
+            }
+        }
+        names[nameId] = normalized;
+        letterMasks[nameId] = lettersOf(normalized);
+        nameLengths[nameId] = normalized.length();
+        NAME_IDS.put(normalized, nameId);
+        for (long trigram : trigramsOf(normalized, true)) {
+            int slot = TRIGRAMS.get(trigram);
+            if (slot == LongIntHashMap.MISSING) {
+                if (freeSlotCount > 0) {
+                    slot = freeSlots[--freeSlotCount];
+                    POSTINGS.set(slot, new int[4]);
+                } else {
+                    slot = POSTINGS.size();
+                    POSTINGS.add(new int[4]);
+                    if (slot == postingSizes.length) {
+                        postingSizes = Arrays.copyOf(postingSizes, slot * 2);
+                    }
+                }
+                TRIGRAMS.put(trigram, slot);
+            }
+            int[] nameIds = POSTINGS.get(slot);
+            int size = postingSizes[slot];
+            if (size == nameIds.length) {
+                nameIds = Arrays.copyOf(nameIds, nameIds.length * 2);
+                POSTINGS.set(slot, nameIds);
+            }
+            int at = -Arrays.binarySearch(nameIds, 0, size, nameId) - 1;
+            System.arraycopy(nameIds, at, nameIds, at + 1, size - at);
+            nameIds[at] = nameId;
+            postingSizes[slot]++;
+        }
+        return nameId;
+    }
+
+    // Takes the name out of its trigrams' lists, dropping the lists left empty, and frees
+    // its ID
+    private void removeName(int nameId) {
+        String name = names[nameId];
+        NAME_IDS.remove(name);
+        for (long trigram : trigramsOf(name, true)) {
+            int slot = TRIGRAMS.get(trigram);
+            int[] nameIds = POSTINGS.get(slot);
+            int size = postingSizes[slot];
+            int at = Arrays.binarySearch(nameIds, 0, size, nameId);
+            System.arraycopy(nameIds, at + 1, nameIds, at, size - at - 1);
+            if (--postingSizes[slot] == 0) {
+                TRIGRAMS.remove(trigram);
+                POSTINGS.set(slot, null);
+                if (freeSlotCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+                }
+                freeSlots[freeSlotCount++] = slot;
+            }
+        }
+        names[nameId] = null;
+        holders[nameId] = null;
+        if (freeNameCount == freeNameIds.length) {
+            freeNameIds = Arrays.copyOf(freeNameIds, freeNameCount * 2);
+        }
+        freeNameIds[freeNameCount++] = nameId;
+    }
+
+    // Distinct trigrams of the words of a normalized name, each word led by a space and, if
+    // closed, followed by one; an open word may be the start of a longer one
+    private static long[] trigramsOf(String text, boolean closed) {
+        String padded = " " + text + (closed ? " " : "");
+        long[] trigrams = new long[padded.length()];
+        int count = 0;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            // Spaces only start or end a trigram, never sit inside one
+            if (padded.charAt(i + 1) == ' ' || !closed && padded.charAt(i + 2) == ' ') {
+                continue;
+            }
+            long trigram = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+            boolean repeated = false;
+            for (int j = 0; j < count && !repeated; j++) {
+                repeated = trigrams[j] == trigram;
+            }
+            if (!repeated) {
+                trigrams[count++] = trigram;
+            }
+        }
+        return Arrays.copyOf(trigrams, count);
+    }
+
+    private static int lettersOf(String text) {
+        int mask = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                mask |= 1 << (c - 'a');
+            }
+        }
+        return mask;
+    }
+
+    // Lower case, words separated by one space
+    private static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                if (normalized.length() > 0 && Character.isWhitespace(name.charAt(i - 1))) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    // A normalized query with the state its checks against each candidate name share
+    private static final class Query {
+
+        private final String text;
+        private final String[] words;
+        private final int letters;
+        private final int typos;
+        private final int letterMask;
+        // Rows of the edit distance table, reused for every candidate
+        private int[] beforePrevious;
+        private int[] previous;
+        private int[] current;
+
+        private Query(String text) {
+            this.text = text;
+            this.words = text.isEmpty() ? new String[0] : text.split(" ");
+            this.letters = text.length() - Math.max(0, words.length - 1);
+            // One typo from four letters on, two from eight
+            this.typos = letters < 4 ? 0 : letters < 8 ? 1 : 2;
+            this.letterMask = lettersOf(text);
+            this.beforePrevious = new int[text.length() + 1];
+            this.previous = new int[text.length() + 1];
+            this.current = new int[text.length() + 1];
+        }
+
+        // EXACT, NAME_PREFIX or WORD_PREFIX if the name matches that way, else TYPO
+        private int rank(String name) {
+            if (name.equals(text)) {
+                return EXACT;
+            }
+            if (name.startsWith(text)) {
+                return NAME_PREFIX;
+            }
+            return startsWords(name) ? WORD_PREFIX : TYPO;
+        }
+
+        // Whether each query word starts a name word, in order
+        private boolean startsWords(String name) {
+            int from = 0;
+            for (String word : words) {
+                while (from < name.length() && !name.startsWith(word, from)) {
+                    int space = name.indexOf(' ', from);
+                    from = space < 0 ? name.length() : space + 1;
+                }
+                if (from >= name.length()) {
+                    return false;
+                }
+                int space = name.indexOf(' ', from);
+                from = space < 0 ? name.length() : space + 1;
+            }
+            return true;
+        }
+
+        // Fewest edits (insert, delete, replace or swap two neighbours) that turn the query
+        // into the start of the name from one of its words; typos + 1 when that takes more
+        private int typoDistance(String name) {
+            int best = typos + 1;
+            for (int start = 0; start < name.length() && best > 0; start++) {
+                if (start == 0 || name.charAt(start - 1) == ' ') {
+                    best = Math.min(best, prefixDistance(name, start, best - 1));
+                }
+            }
+            return best;
+        }
+
+        private int prefixDistance(String name, int start, int maxDistance) {
+            int length = Math.min(name.length() - start, text.length() + maxDistance);
+            int beyond = maxDistance + 1;
+            // Rows are name prefixes, columns query prefixes; the last column is what counts.
+            // Only cells within maxDistance of the diagonal can stay within maxDistance, so
+            // each row is computed on that band, with beyond just outside it.
+            for (int j = 0; j <= text.length(); j++) {
+                previous[j] = Math.min(j, beyond);
+            }
+            int best = Math.min(text.length(), beyond);
+            for (int i = 1; i <= length; i++) {
+                char nameChar = name.charAt(start + i - 1);
+                int low = Math.max(1, i - maxDistance);
+                int high = Math.min(text.length(), i + maxDistance);
+                current[low - 1] = low == 1 ? Math.min(i, beyond) : beyond;
+                int rowMinimum = current[low - 1];
+                for (int j = low; j <= high; j++) {
+                    char queryChar = text.charAt(j - 1);
+                    int cost = nameChar == queryChar ? 0 : 1;
+                    int cell = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                    if (i > 1 && j > 1 && nameChar == text.charAt(j - 2) && name.charAt(start + i - 2) == queryChar) {
+                        cell = Math.min(cell, beforePrevious[j - 2] + 1);
+                    }
+                    current[j] = Math.min(cell, beyond);
+                    rowMinimum = Math.min(rowMinimum, current[j]);
+                }
+                if (high < text.length()) {
+                    current[high + 1] = beyond;
+                }
+                if (high == text.length()) {
+                    best = Math.min(best, current[text.length()]);
+                }
+                // Every later cell builds on this row, so none can get back under the limit
+                if (rowMinimum > maxDistance) {
+                    break;
+                }
+                int[] recycled = beforePrevious;
+                beforePrevious = previous;
+                previous = current;
+                current = recycled;
+            }
+            return best;
+        }
+    }
+
+    private static final class Match {
+
+        private final int nameId;
+        private final int rank;
+        private final int distance;
+
+        private Match(int nameId, int rank, int distance) {
+            this.nameId = nameId;
+            this.rank = rank;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package data;
+
+public final class LineError {
+
+    private final int lineNumber;
+    private final String message;
+
+    public LineError(int lineNumber, String message) {
+        this.lineNumber = lineNumber;
+        this.message = message;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "Line " + lineNumber + ": " + message;
+    }
+}
@@ -0,0 +1,170 @@
+package data;
+
+import common.metrics.Metrics;
+import core.entities.Guest;
+import core.entities.ImportResult;
+import core.interfaces.IGuest;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+// IGuest that records the latency of every call under guest.<method>, counts calls that
+// throw under guest.<method>.errors and rejected bookings and import rows by reason, and
+// publishes the guest count as a gauge. Only wrapped around the DAO when metrics are on.
+public class MeteredGuestDAO implements IGuest {
+
+    private final IGuest DELEGATE;
+
+    public MeteredGuestDAO(IGuest delegate) {
+        this.DELEGATE = delegate;
+        Metrics.gauge("guests", DELEGATE::getLoadedGuestCount);
+    }
+
+    @Override
+    public List<Guest> getGuests() throws Exception {
+        return time("guest.getGuests", DELEGATE::getGuests);
+    }
+
+    @Override
+    public Guest getGuestById(String id) throws Exception {
+        return time("guest.getGuestById", () -> DELEGATE.getGuestById(id));
+    }
+
+    // Read by the gauge on every metrics dump, so not timed itself
+    @Override
+    public int getLoadedGuestCount() {
+        return DELEGATE.getLoadedGuestCount();
+    }
+
+    @Override
+    public void addGuest(Guest guest) throws Exception {
+        time("guest.addGuest", () -> {
+            DELEGATE.addGuest(guest);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateGuest(Guest guest) throws Exception {
+        time("guest.updateGuest", () -> {
+            DELEGATE.updateGuest(guest);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeGuest(Guest guest) throws Exception {
+        time("guest.removeGuest", () -> {
+            DELEGATE.removeGuest(guest);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean bookGuest(Guest guest) throws Exception {
+        boolean booked = time("guest.bookGuest", () -> DELEGATE.bookGuest(guest));
+        if (!booked) {
+            Metrics.increment("guest.bookGuest.conflicts");
+        }
+        return booked;
+    }
+
+    @Override
+    public boolean rebookGuest(Guest guest) throws Exception {
+        boolean rebooked = time("guest.rebookGuest", () -> DELEGATE.rebookGuest(guest));
+        if (!rebooked) {
+            Metrics.increment("guest.rebookGuest.conflicts");
+        }
+        return rebooked;
+    }
+
+    @Override
+    public ImportResult importGuests(String fileName, Set<String> roomIds) throws Exception {
+        ImportResult result = time("guest.importGuests", () -> DELEGATE.importGuests(fileName, roomIds));
+        Metrics.add("guest.import.succeeded", result.getImportedCount());
+        result.getRejections().values().forEach(reason -> Metrics.fail("guest.import.rejected", reason));
+        return result;
+    }
+
+    @Override
+    public boolean hasOverlappingStay(String roomId, LocalDate startDate, int numberOfDays, String excludeGuestId) throws Exception {
+        return time("guest.hasOverlappingStay",
+                () -> DELEGATE.hasOverlappingStay(roomId, startDate, numberOfDays, excludeGuestId));
+    }
+
+    @Override
+    public boolean isRoomFree(String roomId, LocalDate startDate, LocalDate endDate) throws Exception {
+        return time("guest.isRoomFree", () -> DELEGATE.isRoomFree(roomId, startDate, endDate));
+    }
+
+    @Override
+    public List<LocalDate> findFreeWindows(String roomId, LocalDate fromDate, int numberOfDays, int limit, String excludeGuestId) throws Exception {
+        return time("guest.findFreeWindows",
+                () -> DELEGATE.findFreeWindows(roomId, fromDate, numberOfDays, limit, excludeGuestId));
+    }
+
+    @Override
+    public long getRentalDaysOfRoom(String roomId) throws Exception {
+        return time("guest.getRentalDaysOfRoom", () -> DELEGATE.getRentalDaysOfRoom(roomId));
+    }
+
+    @Override
+    public long getRentalDaysOfRoomInMonth(String roomId, YearMonth month) throws Exception {
+        return time("guest.getRentalDaysOfRoomInMonth", () -> DELEGATE.getRentalDaysOfRoomInMonth(roomId, month));
+    }
+
+    @Override
+    public List<Guest> findGuestsByPhoneNumber(String phoneNumber) throws Exception {
+        return time("guest.findGuestsByPhoneNumber", () -> DELEGATE.findGuestsByPhoneNumber(phoneNumber));
+    }
+
+    @Override
+    public List<Guest> findGuestsByRoom(String roomId) throws Exception {
+        return time("guest.findGuestsByRoom", () -> DELEGATE.findGuestsByRoom(roomId));
+    }
+
+    @Override
+    public List<Guest> findGuestsArrivingBetween(LocalDate fromDate, LocalDate toDate) throws Exception {
+        return time("guest.findGuestsArrivingBetween", () -> DELEGATE.findGuestsArrivingBetween(fromDate, toDate));
+    }
+
+    @Override
+    public List<Guest> searchGuestsByName(String query, int limit) throws Exception {
+        return time("guest.searchGuestsByName", () -> DELEGATE.searchGuestsByName(query, limit));
+    }
+
+    @Override
+    public void saveGuestsListToFile() throws Exception {
+        time("guest.saveGuestsListToFile", () -> {
+            DELEGATE.saveGuestsListToFile();
+            return null;
+        });
+    }
+
+    @Override
+    public void flush() throws Exception {
+        time("guest.flush", () -> {
+            DELEGATE.flush();
+            return null;
+        });
+    }
+
+    private static <T> T time(String operation, Action<T> action) throws Exception {
+        long start = Metrics.start();
+        try {
+            return action.run();
+        } catch (Exception e) {
+            Metrics.increment(operation + ".errors");
+            throw e;
+        } finally {
+            Metrics.record(operation, start);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action<T> {
+
+        T run() throws Exception;
+    }
+}
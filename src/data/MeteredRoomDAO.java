@@ -0,0 +1,66 @@
+package data;
+
+import common.metrics.Metrics;
+import core.entities.Room;
+import core.interfaces.IRoom;
+import java.util.List;
+
+// IRoom that records the latency of every call under room.<method> and publishes the room
+// count as a gauge. Only wrapped around the DAO when metrics are on.
+public class MeteredRoomDAO implements IRoom {
+
+    private final IRoom DELEGATE;
+
+    public MeteredRoomDAO(IRoom delegate) {
+        this.DELEGATE = delegate;
+        Metrics.gauge("rooms", DELEGATE::getLoadedRoomCount);
+    }
+
+    @Override
+    public void loadData() throws Exception {
+        long start = Metrics.start();
+        try {
+            DELEGATE.loadData();
+        } catch (Exception e) {
+            Metrics.increment("room.loadData.errors");
+            throw e;
+        } finally {
+            Metrics.record("room.loadData", start);
+        }
+    }
+
+    @Override
+    public List<Room> getRooms() throws Exception {
+        long start = Metrics.start();
+        try {
+            return DELEGATE.getRooms();
+        } finally {
+            Metrics.record("room.getRooms", start);
+        }
+    }
+
+    @Override
+    public Room getRoomById(String id) throws Exception {
+        long start = Metrics.start();
+        try {
+            return DELEGATE.getRoomById(id);
+        } finally {
+            Metrics.record("room.getRoomById", start);
+        }
+    }
+
+    @Override
+    public int getLoadedRoomCount() {
+        return DELEGATE.getLoadedRoomCount();
+    }
+
+    @Override
+    public List<Room> getRoomsByTypeAndMinCapacity(String roomType, int minCapacity) throws Exception {
+        long start = Metrics.start();
+        try {
+            return DELEGATE.getRoomsByTypeAndMinCapacity(roomType, minCapacity);
+        } finally {
+            Metrics.record("room.getRoomsByTypeAndMinCapacity", start);
+        }
+    }
+}
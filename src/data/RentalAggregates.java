@@ -0,0 +1,51 @@
+package data;
+
+import core.entities.Guest;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+// Running totals of rented days per room and per room and month (the month a stay starts
+// in, as the monthly report counts it). Revenue is days times the room's daily rate, which
+// is looked up when a report runs, so rate changes in the room catalog need no rebuild.
+public class RentalAggregates {
+
+    private final Map<String, Long> DAYS_BY_ROOM = new HashMap<>();
+    private final Map<String, Map<YearMonth, Long>> DAYS_BY_ROOM_MONTH = new HashMap<>();
+
+    public void clear() {
+        DAYS_BY_ROOM.clear();
+        DAYS_BY_ROOM_MONTH.clear();
+    }
+
+    public void add(Guest guest) {
+        apply(guest, guest.getNumberOfRentalDays());
+    }
+
+    public void remove(Guest guest) {
+        apply(guest, -guest.getNumberOfRentalDays());
+    }
+
+    public long getDaysOfRoom(String roomId) {
+        return DAYS_BY_ROOM.getOrDefault(roomId.toUpperCase(), 0L);
+    }
+
+    public long getDaysOfRoomInMonth(String roomId, YearMonth month) {
+        Map<YearMonth, Long> byMonth = DAYS_BY_ROOM_MONTH.get(roomId.toUpperCase());
+        return byMonth == null ? 0 : byMonth.getOrDefault(month, 0L);
+    }
+
+    private void apply(Guest guest, long days) {
+        String roomId = guest.getDesiredRoomID().toUpperCase();
+        if (DAYS_BY_ROOM.merge(roomId, days, Long::sum) == 0) {
+            DAYS_BY_ROOM.remove(roomId);
+        }
+        Map<YearMonth, Long> byMonth = DAYS_BY_ROOM_MONTH.computeIfAbsent(roomId, k -> new HashMap<>());
+        if (byMonth.merge(YearMonth.from(guest.getStartDate()), days, Long::sum) == 0) {
+            byMonth.remove(YearMonth.from(guest.getStartDate()));
+            if (byMonth.isEmpty()) {
+                DAYS_BY_ROOM_MONTH.remove(roomId);
+            }
+        }
+    }
+}
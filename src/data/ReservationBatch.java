@@ -0,0 +1,25 @@
+package data;
+
+import core.entities.Guest;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reservations parsed from an import file, waiting to be checked against the bookings
+public final class ReservationBatch {
+
+    final List<Guest> guests = new ArrayList<>();
+    final List<Integer> lineNumbers = new ArrayList<>();
+    List<LineError> errors;
+
+    ReservationBatch() {
+    }
+
+    void add(Guest guest, int lineNumber) {
+        guests.add(guest);
+        lineNumbers.add(lineNumber);
+    }
+
+    public int size() {
+        return guests.size();
+    }
+}
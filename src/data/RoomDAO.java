@@ -1,137 +1,363 @@
 package data;
 
+import common.metrics.Metrics;
+import common.tools.FieldTokenizer;
 import core.entities.Room;
 import core.interfaces.IRoom;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RoomDAO implements IRoom {
 
-    private final List<Room> ROOM_LIST = new ArrayList<>();
+    // roomID, roomName, roomType, dailyRate, capacity, furnitureDescription
+    private static final int SNAPSHOT_RECORD_WIDTH = 4 + 4 + 4 + 8 + 4 + 4;
+
+    // Rooms loaded in this process by file, so that reopening a DAO on an unchanged file
+    // takes the parsed rooms as they are
+    private static final Map<String, RoomTable> LOADED_TABLES = new ConcurrentHashMap<>();
+
+    // Null until the first call that needs rooms
+    private volatile RoomTable table;
+    private final FieldTokenizer ROOM_TOKENIZER = new FieldTokenizer(';');
     private final FileManager FILE_MANAGER;
+    private final SnapshotFile SNAPSHOT;
+    private final String CACHE_KEY;
 
+    // Reads nothing: the rooms are loaded on first use
     public RoomDAO(String fileName) throws Exception {
         this.FILE_MANAGER = new FileManager(fileName);
-        initData();
+        this.SNAPSHOT = new SnapshotFile(fileName, SNAPSHOT_RECORD_WIDTH);
+        this.CACHE_KEY = new File(fileName).getAbsolutePath();
     }
 
+    // Loads the rooms now instead of on first use
     public final void initData() throws Exception {
-        String roomID, roomName, roomType, furnitureDescription;
-        double dailyRate;
-        int capacity;
+        table();
+    }
 
-        ROOM_LIST.clear();
-        List<String> roomData = FILE_MANAGER.readDataFromFile();
+    @Override
+    public final void loadData() throws Exception {
+        RoomTable loaded;
+        synchronized (this) {
+            loaded = refresh(table);
+            table = loaded;
+        }
 
-        if (roomData.isEmpty()) {
-            throw new Exception("File is empty");
+        System.out.println(loaded.roomList.size() + " rooms successfully loaded.");
+        System.out.println(loaded.skippedLines + " entries failed.");
+    }
+
+    // Re-reads a changed room file into the loaded catalog. Returns null when the rooms are
+    // not loaded yet, as their first use reads the file anyway, or when the file is unchanged.
+    // A file without any valid room is rejected and the catalog kept.
+    public synchronized Changes reload() throws Exception {
+        RoomTable current = table;
+        if (current == null) {
+            return null;
+        }
+        RoomTable loaded = refresh(current);
+        if (loaded == current) {
+            return null;
+        }
+        if (loaded.roomList.isEmpty()) {
+            throw new Exception("No valid room was loaded.");
         }
+        table = loaded;
+        return loaded.changes;
+    }
 
-        for (int i = 0; i < roomData.size(); i++) {
-            String e = roomData.get(i);
-            try {
-                List<String> roomS = Arrays.asList(e.split(";"));
-                if (roomS.size() < 6) {
-                    throw new IllegalArgumentException("Missing field data.");
+    @Override
+    public int getLoadedRoomCount() {
+        RoomTable current = table;
+        return current == null ? 0 : current.roomList.size();
+    }
+
+    private RoomTable table() throws Exception {
+        RoomTable current = table;
+        if (current == null) {
+            synchronized (this) {
+                current = table;
+                if (current == null) {
+                    current = refresh(null);
+                    if (current.roomList.isEmpty()) {
+                        throw new Exception("No valid room was loaded.");
+                    }
+                    table = current;
                 }
+            }
+        }
+        return current;
+    }
+
+    // The rooms of the file as it is now. The current table is kept while the file's length
+    // and modification time match it; on a first load, a table another DAO loaded from the
+    // same file version is taken as it is. Otherwise the snapshot or the text file is read and
+    // reconciled with the current rooms.
+    private RoomTable refresh(RoomTable current) throws Exception {
+        long[] stamp = SNAPSHOT.stampSource();
+        RoomTable reusable = current == null ? LOADED_TABLES.get(CACHE_KEY) : current;
+        if (SnapshotFile.ENABLED && reusable != null && Arrays.equals(reusable.stamp, stamp)) {
+            Metrics.increment("room.load.reused");
+            return reusable;
+        }
 
-                roomID = roomS.get(0).trim();
-                roomName = roomS.get(1).trim();
-                roomType = roomS.get(2).trim();
-                dailyRate = Double.parseDouble(roomS.get(3).trim());
-                capacity = Integer.parseInt(roomS.get(4).trim());
-                furnitureDescription = roomS.get(5).trim();
+        long start = Metrics.start();
+        Reconciler reconciler = new Reconciler(current == null ? Collections.emptyMap() : current.roomMap);
+        RoomTable loaded = loadSnapshot(stamp, reconciler);
+        if (loaded == null) {
+            loaded = parseRoomFile(stamp, new Reconciler(reconciler.previous));
+        }
+        Metrics.record("room.load", start);
+        Metrics.add("room.load.succeeded", loaded.roomList.size());
+        Metrics.add("room.load.failed", loaded.skippedLines);
+        if (current != null) {
+            Metrics.add("room.reload.added", loaded.changes.getAdded());
+            Metrics.add("room.reload.updated", loaded.changes.getUpdated());
+            Metrics.add("room.reload.removed", loaded.changes.getRemoved());
+        }
+        LOADED_TABLES.put(CACHE_KEY, loaded);
+        return loaded;
+    }
+
+    private RoomTable parseRoomFile(long[] stamp, Reconciler reconciler) throws Exception {
+        Map<String, Room> rooms = new HashMap<>();
+        List<Room> sortedRooms = new ArrayList<>();
+        List<LineError> errors = new ArrayList<>();
+        int lineCount = FILE_MANAGER.readDataFromFile((line, lineNumber) -> {
+            try {
+                Room room = parseRoom(line);
 
                 // Check for duplicate room ID
-                boolean isDuplicate = getRoomById(roomID) != null;
+                boolean isDuplicate = rooms.containsKey(room.getRoomID());
                 if (isDuplicate) {
-                    throw new IllegalArgumentException("Duplicate room ID found: " + roomID);
+                    throw new IllegalArgumentException("Duplicate room ID found: " + room.getRoomID());
                 }
 
-                Room room = new Room(roomID, roomName, roomType, dailyRate, capacity, furnitureDescription);
-                ROOM_LIST.add(room);
+                room = reconciler.match(room);
+                rooms.put(room.getRoomID(), room);
+                sortedRooms.add(room);
             } catch (Exception ex) {
+                errors.add(new LineError(lineNumber, ex.getMessage()));
+                Metrics.fail("room.load.failed", ex);
             }
+        });
+
+        if (lineCount == 0) {
+            throw new Exception("File is empty");
         }
 
-        if (ROOM_LIST.isEmpty()) {
-            throw new Exception("No valid room was loaded.");
+        RoomTable loaded = new RoomTable(rooms, sortedRooms, stamp, errors.size(), reconciler.changes());
+        WriteBehindSaver.getInstance().submit(
+                () -> SNAPSHOT.write(loaded.roomList, RoomDAO::writeRoom, stamp, errors));
+        return loaded;
+    }
+
+    // Null when the snapshot is missing or stale and the text file has to be parsed
+    private RoomTable loadSnapshot(long[] stamp, Reconciler reconciler) {
+        Map<String, Room> rooms = new HashMap<>();
+        List<Room> sortedRooms = new ArrayList<>();
+        try {
+            List<LineError> skippedLines = SNAPSHOT.read((decoder, recordNumber) -> {
+                Room room = reconciler.match(readRoom(decoder));
+                rooms.put(room.getRoomID(), room);
+                sortedRooms.add(room);
+            });
+            return skippedLines == null ? null
+                    : new RoomTable(rooms, sortedRooms, stamp, skippedLines.size(), reconciler.changes());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Counts of the rooms a load added, changed and dropped compared with the rooms before it
+    public static final class Changes {
+
+        private final int added;
+        private final int updated;
+        private final int removed;
+
+        private Changes(int added, int updated, int removed) {
+            this.added = added;
+            this.updated = updated;
+            this.removed = removed;
+        }
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getUpdated() {
+            return updated;
         }
 
+        public int getRemoved() {
+            return removed;
+        }
+
+        public boolean isEmpty() {
+            return added == 0 && updated == 0 && removed == 0;
+        }
     }
 
-    @Override
-    public final void loadData() throws Exception {
-        String roomID, roomName, roomType, furnitureDescription;
-        double dailyRate;
-        int capacity;
+    // Matches the rooms read from the file with the rooms loaded before by room ID, so that a
+    // room still in the catalog with the same details keeps its Room object. A room whose
+    // details changed is taken as read: loaded Room objects are never modified, since other
+    // DAOs on the file and callers holding a room or a table's lists still read them.
+    private static final class Reconciler {
 
-        ROOM_LIST.clear();
-        List<String> roomData = FILE_MANAGER.readDataFromFile();
+        private final Map<String, Room> previous;
+        private int added;
+        private int updated;
+        private int kept;
 
-        if (roomData.isEmpty()) {
-            throw new Exception("File is empty");
+        private Reconciler(Map<String, Room> previous) {
+            this.previous = previous;
         }
 
-        int successCount = 0;
-        int errorCount = 0;
-        for (int i = 0; i < roomData.size(); i++) {
-            String e = roomData.get(i);
-            try {
-                List<String> roomS = Arrays.asList(e.split(";"));
-                if (roomS.size() < 6) {
-                    throw new IllegalArgumentException("Missing field data.");
-                }
+        private Room match(Room room) {
+            Room existing = previous.get(room.getRoomID());
+            if (existing == null) {
+                added++;
+                return room;
+            }
+            kept++;
+            if (!hasSameDetails(existing, room)) {
+                updated++;
+                return room;
+            }
+            return existing;
+        }
 
-                roomID = roomS.get(0).trim();
-                roomName = roomS.get(1).trim();
-                roomType = roomS.get(2).trim();
-                dailyRate = Double.parseDouble(roomS.get(3).trim());
-                capacity = Integer.parseInt(roomS.get(4).trim());
-                furnitureDescription = roomS.get(5).trim();
+        private Changes changes() {
+            return new Changes(added, updated, previous.size() - kept);
+        }
 
-                // Check for duplicate room ID
-                boolean isDuplicate = getRoomById(roomID) != null;
-                if (isDuplicate) {
-                    throw new IllegalArgumentException("Duplicate room ID found: " + roomID);
-                }
+        private static boolean hasSameDetails(Room existing, Room room) {
+            return existing.getRoomName().equals(room.getRoomName())
+                    && existing.getRoomType().equals(room.getRoomType())
+                    && existing.getDailyRate() == room.getDailyRate()
+                    && existing.getCapacity() == room.getCapacity()
+                    && existing.getFurnitureDescription().equals(room.getFurnitureDescription());
+        }
+    }
 
-                Room room = new Room(roomID, roomName, roomType, dailyRate, capacity, furnitureDescription);
-                ROOM_LIST.add(room);
-                successCount++;
-            } catch (Exception ex) {
-                errorCount++;
+    // Everything read from one version of the room file. Neither the maps and lists nor the
+    // rooms in them change after construction, so one table can be shared by every DAO on the
+    // file; a reload builds a new table and publishes it with a single write of the table field.
+    private static final class RoomTable {
+
+        private final Map<String, Room> roomMap;
+        private final List<Room> roomList;
+        // Room type (lower case) -> capacity -> rooms of that type with at least that
+        // capacity, cheapest first
+        private final Map<String, NavigableMap<Integer, List<Room>>> roomsByTypeAndCapacity;
+        private final long[] stamp;
+        private final int skippedLines;
+        private final Changes changes;
+
+        private RoomTable(Map<String, Room> rooms, List<Room> sortedRooms, long[] stamp, int skippedLines, Changes changes) {
+            // Sorted once per load so that getRooms() can hand out the same list every time
+            sortedRooms.sort((e1, e2) -> e1.getRoomID().compareTo(e2.getRoomID()));
+            this.roomMap = rooms;
+            this.roomList = Collections.unmodifiableList(sortedRooms);
+            this.roomsByTypeAndCapacity = groupByTypeAndCapacity(sortedRooms);
+            this.stamp = stamp;
+            this.skippedLines = skippedLines;
+            this.changes = changes;
+        }
+    }
+
+    private static Map<String, NavigableMap<Integer, List<Room>>> groupByTypeAndCapacity(List<Room> rooms) {
+        Map<String, TreeMap<Integer, List<Room>>> byCapacity = new HashMap<>();
+        for (Room room : rooms) {
+            byCapacity.computeIfAbsent(room.getRoomType().toLowerCase(), k -> new TreeMap<>())
+                    .computeIfAbsent(room.getCapacity(), k -> new ArrayList<>())
+                    .add(room);
+        }
+
+        Map<String, NavigableMap<Integer, List<Room>>> result = new HashMap<>();
+        byCapacity.forEach((type, buckets) -> {
+            // Walk capacities from largest to smallest, so each bucket adds to the rooms of
+            // every larger capacity
+            NavigableMap<Integer, List<Room>> atLeast = new TreeMap<>();
+            List<Room> larger = new ArrayList<>();
+            for (Map.Entry<Integer, List<Room>> bucket : buckets.descendingMap().entrySet()) {
+                larger.addAll(bucket.getValue());
+                List<Room> byRate = new ArrayList<>(larger);
+                byRate.sort(Comparator.comparingDouble(Room::getDailyRate));
+                atLeast.put(bucket.getKey(), Collections.unmodifiableList(byRate));
             }
+            result.put(type, atLeast);
+        });
+        return result;
+    }
+
+    private static void writeRoom(SnapshotFile.Encoder encoder, Room room) {
+        encoder.putString(room.getRoomID())
+                .putString(room.getRoomName())
+                .putString(room.getRoomType())
+                .putDouble(room.getDailyRate())
+                .putInt(room.getCapacity())
+                .putString(room.getFurnitureDescription());
+    }
+
+    private static Room readRoom(SnapshotFile.Decoder decoder) throws Exception {
+        String roomID = decoder.getString();
+        String roomName = decoder.getString();
+        String roomType = decoder.getString();
+        double dailyRate = decoder.getDouble();
+        int capacity = decoder.getInt();
+        String furnitureDescription = decoder.getString();
+        return new Room(roomID, roomName, roomType, dailyRate, capacity, furnitureDescription);
+    }
+
+    private Room parseRoom(String line) throws Exception {
+        String roomID, roomName, roomType, furnitureDescription;
+        double dailyRate;
+        int capacity;
+
+        FieldTokenizer roomS = ROOM_TOKENIZER.reset(line);
+        if (roomS.size() < 6) {
+            throw new IllegalArgumentException("Missing field data.");
         }
 
-        System.out.println(successCount + " rooms successfully loaded.");
-        System.out.println(errorCount + " entries failed.");
+        roomID = roomS.getString(0);
+        roomName = roomS.getString(1);
+        roomType = roomS.getString(2);
+        dailyRate = roomS.getDouble(3);
+        capacity = roomS.getInt(4);
+        furnitureDescription = roomS.getString(5);
+
+        return new Room(roomID, roomName, roomType, dailyRate, capacity, furnitureDescription);
     }
 
     @Override
-    public List<Room> getRooms() {
-        Collections.sort(
-                ROOM_LIST,
-                (e1, e2) -> e1.getRoomID().compareTo(e2.getRoomID())
-        );
-        return ROOM_LIST;
+    public List<Room> getRooms() throws Exception {
+        return table().roomList;
     }
 
     @Override
     public Room getRoomById(String id) throws Exception {
-        if (ROOM_LIST.isEmpty()) {
-            getRooms();//return null
-        }
-        Room room = ROOM_LIST
-                .stream()
-                .filter(
-                        e -> e.getRoomID().equals(id)
-                )
-                .findFirst()
-                .orElse(null);
-        return room;
+        return table().roomMap.get(id);
+    }
+
+    @Override
+    public List<Room> getRoomsByTypeAndMinCapacity(String roomType, int minCapacity) throws Exception {
+        NavigableMap<Integer, List<Room>> byCapacity = table().roomsByTypeAndCapacity.get(roomType.toLowerCase());
+        if (byCapacity == null) {
+            return Collections.emptyList();
+        }
+        Map.Entry<Integer, List<Room>> rooms = byCapacity.ceilingEntry(minCapacity);
+        return rooms == null ? Collections.emptyList() : rooms.getValue();
     }
 
 }
@@ -0,0 +1,103 @@
+package data;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// Reloads the room catalog when the room file changes on disk, so catalog edits take effect
+// without importing the room data again from the menu.
+//
+// The watch is on the file's directory, since editors often save by writing a new file and
+// renaming it over the old one. One save can raise several events, so they are collected
+// until the directory has been quiet for SETTLE_MILLIS before the file is read.
+//
+// Nothing is printed from the watch thread, as it would land in the middle of the console
+// menu; the outcome of each reload is queued until the menu polls it with pollReport.
+public class RoomFileWatcher implements AutoCloseable {
+
+    // Set -Droom.watch=false to reload the room file only from the menu
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("room.watch"));
+
+    private static final long SETTLE_MILLIS = 300;
+
+    private final RoomDAO ROOM_DAO;
+    private final Path FILE_NAME;
+    private final WatchService WATCH_SERVICE;
+    private final Thread WATCH_THREAD;
+    private final Queue<String> REPORTS = new ConcurrentLinkedQueue<>();
+
+    public RoomFileWatcher(RoomDAO roomDAO, String fileName) throws IOException {
+        Path file = Paths.get(fileName).toAbsolutePath();
+        this.ROOM_DAO = roomDAO;
+        this.FILE_NAME = file.getFileName();
+        this.WATCH_SERVICE = FileSystems.getDefault().newWatchService();
+        file.getParent().register(WATCH_SERVICE, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.WATCH_THREAD = new Thread(this::watch, "room-file-watcher");
+        this.WATCH_THREAD.setDaemon(true);
+    }
+
+    public void start() {
+        WATCH_THREAD.start();
+    }
+
+    // The oldest reload outcome not reported yet, or null if there is none
+    public String pollReport() {
+        return REPORTS.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        WATCH_SERVICE.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = touchesRoomFile(WATCH_SERVICE.take());
+                WatchKey key;
+                while ((key = WATCH_SERVICE.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= touchesRoomFile(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed: stop watching
+        }
+    }
+
+    private boolean touchesRoomFile(WatchKey key) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Events were lost, so the room file may have changed too
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || FILE_NAME.equals(event.context())) {
+                touched = true;
+            }
+        }
+        key.reset();
+        return touched;
+    }
+
+    private void reload() {
+        try {
+            RoomDAO.Changes changes = ROOM_DAO.reload();
+            if (changes != null && !changes.isEmpty()) {
+                REPORTS.add("Room list reloaded: " + changes.getAdded() + " added, "
+                        + changes.getUpdated() + " updated, " + changes.getRemoved() + " removed.");
+            }
+        } catch (Exception e) {
+            REPORTS.add("Room list not reloaded: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary copy of a text data file used to skip parsing at startup. The text file stays the
+// interchange format; the snapshot is only trusted while the length and modification time
+// recorded in its header still match the text file, and can be deleted at any time.
+//
+// Layout: header | recordCount fixed-width records | skippedCount (line number, message)
+// pairs | string dictionary. The pairs are the text lines left out when the snapshot was
+// written, so that a load from the snapshot reports them as parsing the text file would.
+// Strings are stored once in the dictionary and referenced by index; dates are epoch days.
+public class SnapshotFile {
+
+    // Set -Droom.snapshot=false to always parse the text files
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("room.snapshot"));
+
+    private static final int MAGIC = 0x524D5342;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES + 3 * Long.BYTES;
+    private static final Charset UTF_8 = Charset.forName("utf-8");
+
+    private final File SOURCE_FILE;
+    private final File SNAPSHOT_FILE;
+    private final int RECORD_WIDTH;
+
+    public SnapshotFile(String sourceFileName, int recordWidth) {
+        this.SOURCE_FILE = new File(sourceFileName);
+        this.SNAPSHOT_FILE = new File(sourceFileName.replaceFirst("\\.txt$", "") + ".bin");
+        this.RECORD_WIDTH = recordWidth;
+    }
+
+    public long[] stampSource() {
+        return new long[]{SOURCE_FILE.length(), SOURCE_FILE.lastModified()};
+    }
+
+    // Reads every record through the reader and returns the text lines that were skipped
+    // when the snapshot was written, or null if the snapshot is missing or stale.
+    public List<LineError> read(RecordReader reader) throws Exception {
+        if (!ENABLED || !SNAPSHOT_FILE.isFile()) {
+            return null;
+        }
+        long[] stamp = stampSource();
+        try (FileChannel channel = FileChannel.open(SNAPSHOT_FILE.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != RECORD_WIDTH) {
+                return null;
+            }
+            int recordCount = buffer.getInt();
+            int skippedCount = buffer.getInt();
+            long sourceLength = buffer.getLong();
+            long sourceModified = buffer.getLong();
+            long dictionaryOffset = buffer.getLong();
+            if (sourceLength != stamp[0] || sourceModified != stamp[1]) {
+                return null;
+            }
+
+            buffer.position((int) dictionaryOffset);
+            String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                dictionary[i] = new String(bytes, UTF_8);
+            }
+
+            Decoder decoder = new Decoder(buffer, dictionary);
+            for (int i = 0; i < recordCount; i++) {
+                buffer.position(HEADER_SIZE + i * RECORD_WIDTH);
+                reader.read(decoder, i + 1);
+            }
+            buffer.position(HEADER_SIZE + recordCount * RECORD_WIDTH);
+            List<LineError> skippedLines = new ArrayList<>(skippedCount);
+            for (int i = 0; i < skippedCount; i++) {
+                int lineNumber = buffer.getInt();
+                skippedLines.add(new LineError(lineNumber, dictionary[buffer.getInt()]));
+            }
+            return skippedLines;
+        }
+    }
+
+    // Best effort: the snapshot is a cache, so a failed write only means the next start
+    // parses the text file again.
+    public <T> void write(List<T> records, RecordWriter<T> writer, long[] stamp, List<LineError> skippedLines) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            Encoder encoder = new Encoder(ByteBuffer.allocate(records.size() * RECORD_WIDTH
+                    + skippedLines.size() * 2 * Integer.BYTES));
+            for (T record : records) {
+                int start = encoder.records.position();
+                writer.write(encoder, record);
+                if (encoder.records.position() - start != RECORD_WIDTH) {
+                    throw new IllegalStateException("Snapshot record width mismatch");
+                }
+            }
+            for (LineError error : skippedLines) {
+                encoder.putInt(error.getLineNumber()).putString(String.valueOf(error.getMessage()));
+            }
+
+            List<byte[]> strings = new ArrayList<>(encoder.strings.size());
+            int dictionarySize = Integer.BYTES;
+            for (String value : encoder.strings) {
+                byte[] bytes = value.getBytes(UTF_8);
+                strings.add(bytes);
+                dictionarySize += Integer.BYTES + bytes.length;
+            }
+
+            long dictionaryOffset = HEADER_SIZE + (long) records.size() * RECORD_WIDTH
+                    + (long) skippedLines.size() * 2 * Integer.BYTES;
+            ByteBuffer file = ByteBuffer.allocate((int) dictionaryOffset + dictionarySize);
+            file.putInt(MAGIC).putInt(VERSION).putInt(RECORD_WIDTH)
+                    .putInt(records.size()).putInt(skippedLines.size())
+                    .putLong(stamp[0]).putLong(stamp[1]).putLong(dictionaryOffset);
+            encoder.records.flip();
+            file.put(encoder.records);
+            file.putInt(strings.size());
+            for (byte[] bytes : strings) {
+                file.putInt(bytes.length).put(bytes);
+            }
+            file.flip();
+            new FileManager(SNAPSHOT_FILE.getPath()).saveDataToFile(file);
+        } catch (IOException | RuntimeException e) {
+            SNAPSHOT_FILE.delete();
+        }
+    }
+
+    @FunctionalInterface
+    public interface RecordReader {
+
+        void read(Decoder decoder, int recordNumber) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface RecordWriter<T> {
+
+        void write(Encoder encoder, T record);
+    }
+
+    public static final class Encoder {
+
+        private final ByteBuffer records;
+        private final Map<String, Integer> references = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        private Encoder(ByteBuffer records) {
+            this.records = records;
+        }
+
+        public Encoder putByte(int value) {
+            records.put((byte) value);
+            return this;
+        }
+
+        public Encoder putInt(int value) {
+            records.putInt(value);
+            return this;
+        }
+
+        public Encoder putLong(long value) {
+            records.putLong(value);
+            return this;
+        }
+
+        public Encoder putDouble(double value) {
+            records.putDouble(value);
+            return this;
+        }
+
+        public Encoder putDate(LocalDate value) {
+            records.putInt((int) value.toEpochDay());
+            return this;
+        }
+
+        public Encoder putString(String value) {
+            Integer reference = references.get(value);
+            if (reference == null) {
+                reference = strings.size();
+                references.put(value, reference);
+                strings.add(value);
+            }
+            records.putInt(reference);
+            return this;
+        }
+    }
+
+    public static final class Decoder {
+
+        private final ByteBuffer buffer;
+        private final String[] dictionary;
+
+        private Decoder(ByteBuffer buffer, String[] dictionary) {
+            this.buffer = buffer;
+            this.dictionary = dictionary;
+        }
+
+        public byte getByte() {
+            return buffer.get();
+        }
+
+        public int getInt() {
+            return buffer.getInt();
+        }
+
+        public long getLong() {
+            return buffer.getLong();
+        }
+
+        public double getDouble() {
+            return buffer.getDouble();
+        }
+
+        public LocalDate getDate() {
+            return LocalDate.ofEpochDay(buffer.getInt());
+        }
+
+        public String getString() {
+            return dictionary[buffer.getInt()];
+        }
+    }
+}
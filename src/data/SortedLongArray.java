@@ -0,0 +1,79 @@
+package data;
+
+import java.util.Arrays;
+
+// Distinct longs kept sorted in one array, for range lookups by binary search without a
+// node per entry. A single add or remove shifts the tail of the array; addAll sorts values
+// not stored yet and merges them in one pass, so bulk loads do not pay that shift per value.
+final class SortedLongArray {
+
+    private long[] values = new long[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    // Index of the first value not less than value; size() if there is none
+    int ceilingIndex(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    void add(long value) {
+        int at = ceilingIndex(value);
+        if (at < size && values[at] == value) {
+            return;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, at, values, at + 1, size - at);
+        values[at] = value;
+        size++;
+    }
+
+    void addAll(long[] added, int count) {
+        long[] sorted = Arrays.copyOf(added, count);
+        Arrays.sort(sorted);
+        if (size + count > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + count, values.length * 2));
+        }
+        // Merge from the back, so the values already stored are each moved at most once
+        int from = size - 1;
+        int to = size + count - 1;
+        for (int i = count - 1; i >= 0; i--) {
+            while (from >= 0 && values[from] > sorted[i]) {
+                values[to--] = values[from--];
+            }
+            values[to--] = sorted[i];
+        }
+        size += count;
+    }
+
+    void remove(long value) {
+        int at = ceilingIndex(value);
+        if (at < size && values[at] == value) {
+            System.arraycopy(values, at + 1, values, at, size - at - 1);
+            size--;
+        }
+    }
+
+    void clear() {
+        values = new long[16];
+        size = 0;
+    }
+}
@@ -0,0 +1,263 @@
+package data;
+
+import core.entities.Guest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Stays per room, kept both as a check-in ordered map (to find the guests behind a clash)
+// and as an occupancy calendar: one bit per day, set while any stay covers that day, so a
+// "free from X to Y" question is a nextSetBit scan over a handful of 64-day words.
+public class StayIndex {
+
+    // Bit 0 of every calendar is this day; earlier days are not tracked, and a stay that
+    // started before it is only recorded from this day on.
+    private static final long CALENDAR_START_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+
+    private final Map<String, Stay> STAY_BY_GUEST = new HashMap<>();
+    private final Map<String, RoomStays> STAYS_BY_ROOM = new HashMap<>();
+
+    public void clear() {
+        STAY_BY_GUEST.clear();
+        STAYS_BY_ROOM.clear();
+    }
+
+    public void add(Guest guest) {
+        remove(guest.getNationalID());
+        Stay stay = new Stay(guest.getNationalID(), guest.getDesiredRoomID().toUpperCase(),
+                guest.getStartDate(), guest.getStartDate().plusDays(guest.getNumberOfRentalDays() - 1));
+        STAY_BY_GUEST.put(stay.nationalID, stay);
+        STAYS_BY_ROOM.computeIfAbsent(stay.roomID, k -> new RoomStays()).add(stay);
+    }
+
+    public void remove(String nationalID) {
+        Stay stay = STAY_BY_GUEST.remove(nationalID);
+        if (stay == null) {
+            return;
+        }
+        RoomStays roomStays = STAYS_BY_ROOM.get(stay.roomID);
+        roomStays.remove(stay);
+        if (roomStays.isEmpty()) {
+            STAYS_BY_ROOM.remove(stay.roomID);
+        }
+    }
+
+    public boolean hasOverlap(String roomId, LocalDate startDate, LocalDate endDate, String excludeGuestId) {
+        RoomStays roomStays = STAYS_BY_ROOM.get(roomId.toUpperCase());
+        if (roomStays == null || roomStays.isFree(startDate, endDate)) {
+            return false;
+        }
+        // Some day is taken; only the stays themselves can tell whether it is the excluded guest
+        return excludeGuestId == null || roomStays.hasOverlap(startDate, endDate, excludeGuestId);
+    }
+
+    public boolean isFree(String roomId, LocalDate startDate, LocalDate endDate) {
+        RoomStays roomStays = STAYS_BY_ROOM.get(roomId.toUpperCase());
+        return roomStays == null || roomStays.isFree(startDate, endDate);
+    }
+
+    // Stays of the room as epoch-day pairs {start, end, start, end, ...}, in check-in order
+    public long[] stayRanges(String roomId) {
+        RoomStays roomStays = STAYS_BY_ROOM.get(roomId.toUpperCase());
+        if (roomStays == null) {
+            return new long[0];
+        }
+        List<Long> ranges = new ArrayList<>();
+        for (List<Stay> stays : roomStays.BY_START.values()) {
+            for (Stay stay : stays) {
+                ranges.add(stay.startDate.toEpochDay());
+                ranges.add(stay.endDate.toEpochDay());
+            }
+        }
+        long[] result = new long[ranges.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ranges.get(i);
+        }
+        return result;
+    }
+
+    // Start dates of the earliest free windows of numberOfDays days on or after fromDate, at
+    // most limit of them and one per gap between bookings. The stay of excludeGuestId, if
+    // any, counts as free, so a guest moving their own booking can keep part of their days.
+    public List<LocalDate> findFreeWindows(String roomId, LocalDate fromDate, int numberOfDays, int limit, String excludeGuestId) {
+        RoomStays roomStays = STAYS_BY_ROOM.get(roomId.toUpperCase());
+        if (roomStays == null) {
+            List<LocalDate> windows = new ArrayList<>(1);
+            windows.add(fromDate);
+            return windows;
+        }
+        Stay excluded = excludeGuestId == null ? null : STAY_BY_GUEST.get(excludeGuestId);
+        NavigableMap<Integer, Integer> gaps = excluded != null && excluded.roomID.equals(roomId.toUpperCase())
+                ? roomStays.gapsWithout(excluded)
+                : roomStays.gaps();
+
+        List<LocalDate> windows = new ArrayList<>(limit);
+        int from = fromIndex(fromDate);
+        Map.Entry<Integer, Integer> current = gaps.floorEntry(from);
+        if (current != null && current.getValue() - (long) from >= numberOfDays) {
+            windows.add(fromDate);
+        }
+        for (Map.Entry<Integer, Integer> gap : gaps.tailMap(from, false).entrySet()) {
+            if (windows.size() >= limit) {
+                break;
+            }
+            if (gap.getValue() - (long) gap.getKey() >= numberOfDays) {
+                windows.add(LocalDate.ofEpochDay(CALENDAR_START_DAY + gap.getKey()));
+            }
+        }
+        return windows;
+    }
+
+    // Calendar bit range [fromIndex(startDate), toIndex(endDate)) of an inclusive date range
+    private static int fromIndex(LocalDate startDate) {
+        return clampIndex(startDate.toEpochDay() - CALENDAR_START_DAY);
+    }
+
+    private static int toIndex(LocalDate endDate) {
+        return clampIndex(endDate.toEpochDay() - CALENDAR_START_DAY + 1);
+    }
+
+    private static int clampIndex(long index) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, index));
+    }
+
+    private static final class Stay {
+
+        private final String nationalID;
+        private final String roomID;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        private Stay(String nationalID, String roomID, LocalDate startDate, LocalDate endDate) {
+            this.nationalID = nationalID;
+            this.roomID = roomID;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        private long length() {
+            return endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        }
+    }
+
+    private static final class RoomStays {
+
+        // Stays keyed by check-in date; several guests may share a check-in date when
+        // the source file already contains overlapping bookings.
+        private final TreeMap<LocalDate, List<Stay>> BY_START = new TreeMap<>();
+        private final BitSet OCCUPIED_DAYS = new BitSet();
+        private long longestStay;
+        // Free runs of the calendar, first day -> day after the run (Integer.MAX_VALUE for the
+        // run after the last stay). Rebuilt from the calendar on the first query after a change;
+        // volatile because concurrent readers may rebuild and publish it.
+        private volatile NavigableMap<Integer, Integer> gaps;
+
+        private void add(Stay stay) {
+            BY_START.computeIfAbsent(stay.startDate, k -> new ArrayList<>(1)).add(stay);
+            longestStay = Math.max(longestStay, stay.length());
+            OCCUPIED_DAYS.set(fromIndex(stay.startDate), toIndex(stay.endDate));
+            gaps = null;
+        }
+
+        private void remove(Stay stay) {
+            List<Stay> stays = BY_START.get(stay.startDate);
+            stays.remove(stay);
+            if (stays.isEmpty()) {
+                BY_START.remove(stay.startDate);
+            }
+            clearDays(OCCUPIED_DAYS, stay);
+            gaps = null;
+        }
+
+        // Clears the stay's days, then gives back any of them still covered by another stay
+        private void clearDays(BitSet calendar, Stay stay) {
+            int from = fromIndex(stay.startDate);
+            int to = toIndex(stay.endDate);
+            if (from >= to) {
+                return;
+            }
+            calendar.clear(from, to);
+            LocalDate earliestStart = stay.startDate.minusDays(longestStay - 1);
+            for (List<Stay> others : BY_START.subMap(earliestStart, true, stay.endDate, true).values()) {
+                for (Stay other : others) {
+                    if (other == stay) {
+                        continue;
+                    }
+                    int otherFrom = Math.max(from, fromIndex(other.startDate));
+                    int otherTo = Math.min(to, toIndex(other.endDate));
+                    if (otherFrom < otherTo) {
+                        calendar.set(otherFrom, otherTo);
+                    }
+                }
+            }
+        }
+
+        private NavigableMap<Integer, Integer> gaps() {
+            NavigableMap<Integer, Integer> current = gaps;
+            if (current == null) {
+                current = buildGaps(OCCUPIED_DAYS);
+                gaps = current;
+            }
+            return current;
+        }
+
+        private NavigableMap<Integer, Integer> gapsWithout(Stay stay) {
+            BitSet calendar = (BitSet) OCCUPIED_DAYS.clone();
+            clearDays(calendar, stay);
+            return buildGaps(calendar);
+        }
+
+        private static NavigableMap<Integer, Integer> buildGaps(BitSet calendar) {
+            NavigableMap<Integer, Integer> result = new TreeMap<>();
+            int day = 0;
+            while (true) {
+                int occupied = calendar.nextSetBit(day);
+                if (occupied < 0) {
+                    result.put(day, Integer.MAX_VALUE);
+                    return result;
+                }
+                if (occupied > day) {
+                    result.put(day, occupied);
+                }
+                day = calendar.nextClearBit(occupied);
+            }
+        }
+
+        private boolean isFree(LocalDate startDate, LocalDate endDate) {
+            if (endDate.isBefore(startDate)) {
+                return true;
+            }
+            int next = OCCUPIED_DAYS.nextSetBit(fromIndex(startDate));
+            return next < 0 || next >= toIndex(endDate);
+        }
+
+        private boolean isEmpty() {
+            return BY_START.isEmpty();
+        }
+
+        private boolean hasOverlap(LocalDate startDate, LocalDate endDate, String excludeGuestId) {
+            if (endDate.isBefore(startDate)) {
+                return false;
+            }
+            // Only stays that start at most longestStay - 1 days before the requested
+            // start can still be running on that day.
+            LocalDate earliestStart = startDate.minusDays(longestStay - 1);
+            for (List<Stay> stays : BY_START.subMap(earliestStart, true, endDate, true).values()) {
+                for (Stay stay : stays) {
+                    if (excludeGuestId != null && stay.nationalID.equalsIgnoreCase(excludeGuestId)) {
+                        continue;
+                    }
+                    if (!stay.endDate.isBefore(startDate)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
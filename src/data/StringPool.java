@@ -0,0 +1,52 @@
+package data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Stores each distinct string once and hands out its index. Indexes stay valid until
+// clear(), and a stored string never moves within the array values() returns, so a copy of
+// that array reference keeps reading the same strings for every index handed out so far.
+final class StringPool {
+
+    private final Map<String, Integer> INDEXES = new HashMap<>();
+    private String[] values = new String[64];
+    private int size;
+
+    int intern(String value) {
+        Integer index = INDEXES.get(value);
+        if (index != null) {
+            return index;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        INDEXES.put(value, size);
+        return size++;
+    }
+
+    // The index of the string, or -1 if it was never stored
+    int indexOf(String value) {
+        Integer index = INDEXES.get(value);
+        return index == null ? -1 : index;
+    }
+
+    String get(int index) {
+        return values[index];
+    }
+
+    String[] values() {
+        return values;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        INDEXES.clear();
+        values = new String[64];
+        size = 0;
+    }
+}
@@ -0,0 +1,73 @@
+package data;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Runs file writes on one background thread, in the order they were submitted, so the menu
+// thread never waits on disk I/O. A failed write is kept and rethrown by the next flush or
+// checkFailure call on the caller's thread.
+public final class WriteBehindSaver {
+
+    private static final WriteBehindSaver INSTANCE = new WriteBehindSaver();
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "write-behind-saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Exception> FAILURE = new AtomicReference<>();
+
+    private WriteBehindSaver() {
+        // Writes still queued when the program exits are completed before the JVM stops
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            WRITER.shutdown();
+            try {
+                WRITER.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "write-behind-saver-shutdown"));
+    }
+
+    public static WriteBehindSaver getInstance() {
+        return INSTANCE;
+    }
+
+    public void submit(SaveTask task) {
+        WRITER.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                FAILURE.compareAndSet(null, e);
+            }
+        });
+    }
+
+    // Blocks until every write submitted so far has reached the disk
+    public void flush() throws Exception {
+        awaitPending();
+        checkFailure();
+    }
+
+    // Like flush, but leaves a failure for the next flush or checkFailure to report
+    public void awaitPending() throws Exception {
+        WRITER.submit(() -> {
+        }).get();
+    }
+
+    public void checkFailure() throws Exception {
+        Exception failure = FAILURE.getAndSet(null);
+        if (failure != null) {
+            throw new Exception("Saving data failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SaveTask {
+
+        void run() throws Exception;
+    }
+}
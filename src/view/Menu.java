@@ -6,6 +6,7 @@ import core.interfaces.IGuest;
 import core.interfaces.IRoom;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class Menu {
 
@@ -31,7 +32,11 @@ public class Menu {
     }
 
     public static void manageRoom(IRoom service, IGuest guestService) {
-        RoomManagement roomMenu = new RoomManagement(service, guestService);
+        manageRoom(service, guestService, () -> null);
+    }
+
+    public static void manageRoom(IRoom service, IGuest guestService, Supplier<String> notices) {
+        RoomManagement roomMenu = new RoomManagement(service, guestService, notices);
         roomMenu.processMenu();
     }
 }
@@ -0,0 +1,245 @@
+package data;
+
+import core.entities.Guest;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// Crash recovery of the guest change log: replay of a log cut short, compaction over a
+// sealed log left by a failed compaction, retry of a batch that failed to write, and writes
+// still queued when the program exits.
+public class GuestJournalTest {
+
+    // Checked in before today: a stored booking, no longer valid as a new one
+    private static final String PAST_GUEST = "123456789101, Nguyen Duong Thuan, 21/03/2005, Male, 0346427469, R111, 2, 21/06/2025, None";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File guestFile;
+
+    @Before
+    public void setUp() throws Exception {
+        guestFile = folder.newFile("Guest_List.txt");
+        // A failure left by another test would be reported by this one's first flush
+        try {
+            WriteBehindSaver.getInstance().flush();
+        } catch (Exception e) {
+            // Belongs to an earlier test
+        }
+    }
+
+    @Test
+    public void replaySkipsAnEntryCutShortByACrash() throws Exception {
+        write(guestFile, PAST_GUEST);
+        Guest added = guest(2, "R112", 10);
+        Guest updated = Guest.restore("123456789101", "Nguyen Duong Thuan", LocalDate.of(2005, 3, 21), "Male",
+                "0346427469", "R111", 4, LocalDate.of(2025, 6, 21), "");
+        // The last append was cut off mid-line, without its line separator
+        writeRaw(log(), entry(GuestJournal.ADDED, added) + "\n" + entry(GuestJournal.UPDATED, updated) + "\n"
+                + "A;200000000099, Tran Th");
+
+        GuestDAO dao = new GuestDAO(guestFile.getPath());
+        assertEquals(2, dao.getGuests().size());
+        assertEquals(4, dao.getGuestById("123456789101").getNumberOfRentalDays());
+        assertNotNull(dao.getGuestById(added.getNationalID()));
+        assertEquals(1, dao.getLoadErrors().size());
+        assertTrue(dao.getLoadErrors().get(0).getMessage().startsWith("Change log:"));
+
+        // The next append must not be glued to the torn line
+        Guest later = guest(3, "R113", 20);
+        dao.addGuest(later);
+        dao.saveGuestsListToFile();
+        dao.flush();
+        GuestDAO reopened = new GuestDAO(guestFile.getPath());
+        assertNotNull(reopened.getGuestById(later.getNationalID()));
+        assertEquals(3, reopened.getGuests().size());
+    }
+
+    @Test
+    public void replayReportsLinesThatAreNoEntry() throws Exception {
+        writeRaw(log(), "A\n\nnot an entry\n");
+        List<Character> operations = new ArrayList<>();
+        List<LineError> malformed = new GuestJournal(guestFile.getPath())
+                .replay((operation, payload, lineNumber) -> operations.add(operation));
+        assertTrue(operations.isEmpty());
+        assertEquals(2, malformed.size());
+        assertEquals(1, malformed.get(0).getLineNumber());
+        assertEquals(3, malformed.get(1).getLineNumber());
+    }
+
+    @Test
+    public void compactionKeepsGuestsWhoseStayHasBegun() throws Exception {
+        write(guestFile, PAST_GUEST);
+        GuestDAO dao = new GuestDAO(guestFile.getPath());
+        addGuests(dao, 70);
+        dao.saveGuestsListToFile();
+        dao.flush();
+
+        assertFalse(log().exists());
+        List<String> lines = Files.readAllLines(guestFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(71, lines.size());
+        assertTrue(lines.contains(PAST_GUEST));
+        assertNotNull(new GuestDAO(guestFile.getPath()).getGuestById("123456789101"));
+    }
+
+    @Test
+    public void compactionLeavesTheGuestFileAloneWhileLinesFailToLoad() throws Exception {
+        write(guestFile, PAST_GUEST + "\nnot a guest line");
+        GuestDAO dao = new GuestDAO(guestFile.getPath());
+        assertEquals(1, dao.getLoadErrors().size());
+        addGuests(dao, 70);
+        dao.saveGuestsListToFile();
+        dao.flush();
+
+        assertEquals(2, Files.readAllLines(guestFile.toPath(), StandardCharsets.UTF_8).size());
+        assertEquals(71, new GuestDAO(guestFile.getPath()).getGuests().size());
+    }
+
+    @Test
+    public void compactionFoldsASealedLogLeftByAFailedCompaction() throws Exception {
+        write(guestFile, PAST_GUEST);
+        Guest moved = guest(2, "R112", 10);
+        Guest kept = guest(3, "R113", 10);
+        Guest updated = Guest.restore("123456789101", "Nguyen Duong Thuan", LocalDate.of(2005, 3, 21), "Male",
+                "0346427469", "R111", 4, LocalDate.of(2025, 6, 21), "");
+        // The sealed log is older than the active one, so it is replayed first
+        write(sealedLog(), entry(GuestJournal.ADDED, moved), entry(GuestJournal.UPDATED, updated));
+        write(log(), GuestJournal.entry(GuestJournal.REMOVED, moved.getNationalID()), entry(GuestJournal.ADDED, kept));
+
+        GuestDAO dao = new GuestDAO(guestFile.getPath());
+        assertNull(dao.getGuestById(moved.getNationalID()));
+        assertNotNull(dao.getGuestById(kept.getNationalID()));
+        assertEquals(4, dao.getGuestById("123456789101").getNumberOfRentalDays());
+
+        addGuests(dao, 70);
+        dao.saveGuestsListToFile();
+        dao.flush();
+        assertFalse(sealedLog().exists());
+        assertFalse(log().exists());
+        List<String> lines = Files.readAllLines(guestFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(72, lines.size());
+        assertTrue(lines.contains(updated.toString()));
+        assertTrue(lines.contains(kept.toString()));
+
+        // Both from the snapshot written with the compaction and from the text file alone
+        assertEquals(lines.size(), new GuestDAO(guestFile.getPath()).getGuests().size());
+        Files.deleteIfExists(new File(folder.getRoot(), "Guest_List.bin").toPath());
+        assertEquals(lines.size(), new GuestDAO(guestFile.getPath()).getGuests().size());
+    }
+
+    @Test
+    public void failedWriteIsRetriedByTheNextSave() throws Exception {
+        write(guestFile, PAST_GUEST);
+        GuestDAO dao = new GuestDAO(guestFile.getPath());
+        assertEquals(1, dao.getGuests().size());
+        // A directory in place of the log makes every append fail
+        assertTrue(log().mkdir());
+        Guest first = guest(2, "R112", 10);
+        dao.addGuest(first);
+        assertSaveFails(dao);
+
+        Files.delete(log().toPath());
+        // Nothing new to save: the kept entry is written on its own
+        dao.saveGuestsListToFile();
+        dao.flush();
+        assertNotNull(new GuestDAO(guestFile.getPath()).getGuestById(first.getNationalID()));
+
+        assertTrue(log().renameTo(new File(folder.getRoot(), "moved.log")) && log().mkdir());
+        Guest second = guest(3, "R113", 10);
+        dao.removeGuest(first);
+        dao.addGuest(second);
+        assertSaveFails(dao);
+        Files.delete(log().toPath());
+        assertTrue(new File(folder.getRoot(), "moved.log").renameTo(log()));
+        Guest third = guest(4, "R114", 10);
+        dao.addGuest(third);
+        dao.saveGuestsListToFile();
+        dao.flush();
+
+        GuestDAO reopened = new GuestDAO(guestFile.getPath());
+        assertNull(reopened.getGuestById(first.getNationalID()));
+        assertNotNull(reopened.getGuestById(second.getNationalID()));
+        assertNotNull(reopened.getGuestById(third.getNationalID()));
+        assertTrue(reopened.getLoadErrors().isEmpty());
+    }
+
+    @Test
+    public void queuedWritesFinishBeforeTheProgramExits() throws Exception {
+        File marker = new File(folder.getRoot(), "marker.txt");
+        Process process = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"), ExitWithQueuedWrite.class.getName(), marker.getPath())
+                .inheritIO()
+                .start();
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+        assertEquals(0, process.exitValue());
+        assertEquals("written", new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8));
+    }
+
+    // Queues a slow write and returns from main at once, leaving it to the shutdown hook
+    public static final class ExitWithQueuedWrite {
+
+        public static void main(String[] args) {
+            WriteBehindSaver.getInstance().submit(() -> {
+                Thread.sleep(500);
+                new FileManager(args[0]).saveDataToFile("written");
+            });
+        }
+    }
+
+    // The failure is reported by the save itself if the write already failed, else by the flush
+    private static void assertSaveFails(GuestDAO dao) {
+        try {
+            dao.saveGuestsListToFile();
+            dao.flush();
+            fail("The failed append was not reported");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("kept for the next save"));
+        }
+    }
+
+    private File log() {
+        return new File(guestFile.getPath() + ".log");
+    }
+
+    private File sealedLog() {
+        return new File(guestFile.getPath() + ".log.compacting");
+    }
+
+    private static String entry(char operation, Guest guest) {
+        return GuestJournal.entry(operation, guest.toString());
+    }
+
+    private static void write(File file, String... lines) throws Exception {
+        writeRaw(file, String.join("\n", lines) + "\n");
+    }
+
+    private static void writeRaw(File file, String data) throws Exception {
+        Files.write(file.toPath(), data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void addGuests(GuestDAO dao, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            dao.addGuest(guest(100 + i, "R101", 1 + i * 2));
+        }
+    }
+
+    private static Guest guest(int number, String roomId, int daysFromToday) throws Exception {
+        return new Guest(String.format("2000000%05d", number), "Test Guest", LocalDate.of(1990, 1, 1), "Male",
+                "0346427469", roomId, 2, LocalDate.now().plusDays(daysFromToday), "");
+    }
+}
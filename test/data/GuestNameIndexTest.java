@@ -0,0 +1,68 @@
+package data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+// Names dropped from the trigram index once their last guest leaves, and their IDs reused.
+public class GuestNameIndexTest {
+
+    @Test
+    public void nameIsDroppedWithItsLastGuest() {
+        GuestNameIndex index = new GuestNameIndex();
+        index.add(1, "Nguyen Van An");
+        index.add(2, "Nguyen  van an");
+        index.add(3, "Tran Thi Binh");
+        index.add(3, "None");
+
+        index.remove(1, "Nguyen Van An");
+        assertEquals(2, index.size());
+        assertEquals(Arrays.asList(2L), index.search("nguyen", 10));
+
+        index.remove(2, "NGUYEN VAN AN");
+        assertEquals(1, index.size());
+        assertEquals(Collections.emptyList(), index.search("nguyen", 10));
+        assertEquals(trigramsOf("Tran Thi Binh"), index.trigramCount());
+        assertEquals(Arrays.asList(3L), index.search("tran", 10));
+    }
+
+    @Test
+    public void renamesDoNotAddUp() {
+        GuestNameIndex index = new GuestNameIndex();
+        String name = "Le Van A";
+        index.add(7, name);
+        for (int i = 0; i < 5000; i++) {
+            String renamed = "Le Van " + Integer.toString(i, 26).replace('0', 'q');
+            index.remove(7, name);
+            index.add(7, renamed);
+            name = renamed;
+        }
+        assertEquals(1, index.size());
+        assertEquals(trigramsOf(name), index.trigramCount());
+        assertEquals(Arrays.asList(7L), index.search(name, 10));
+    }
+
+    @Test
+    public void reusedNameIdIsFoundLikeANewOne() {
+        GuestNameIndex index = new GuestNameIndex();
+        index.add(1, "Anna Le");
+        index.add(2, "Anh Tran");
+        index.add(3, "Annie Vu");
+        index.remove(1, "Anna Le");
+        // Takes the ID of "anna le", ahead of the others in every list it joins
+        index.add(4, "Annabel Do");
+        index.add(5, "Anna Le");
+
+        assertEquals(Arrays.asList(5L, 3L, 4L), index.search("ann", 10));
+        assertEquals(Arrays.asList(2L), index.search("anh", 10));
+        assertEquals(Arrays.asList(4L), index.search("annabel d", 10));
+        assertEquals(Arrays.asList(3L), index.search("anie", 10));
+    }
+
+    private static int trigramsOf(String name) {
+        GuestNameIndex index = new GuestNameIndex();
+        index.add(1, name);
+        return index.trigramCount();
+    }
+}
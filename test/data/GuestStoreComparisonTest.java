@@ -0,0 +1,498 @@
+package data;
+
+import core.entities.Guest;
+import core.interfaces.IGuest;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Runs the same guests and the same bookings through GuestDAO and ColumnarGuestDAO and checks
+// that both answer every query alike, and alike to a plain scan of the guests. Stored stays
+// reach back past the 2000-01-01 start of the occupancy calendar and cross month ends; name
+// searches are checked against the edit distance worked out in full.
+public class GuestStoreComparisonTest {
+
+    private static final int ROOMS = 30;
+    private static final LocalDate CALENDAR_START = LocalDate.of(2000, 1, 1);
+    private static final String[] FAMILY_NAMES = {"Nguyen", "Tran", "Le", "Pham", "Hoang", "Vu", "Dang", "Bui", "Do", "Ngo"};
+    private static final String[] GIVEN_NAMES = {"Van An", "Thi Binh", "Duc Cuong", "Minh Chau", "Thanh Dat", "Ngoc Ha",
+        "Quoc Huy", "Thu Lan", "Hai Long", "Bao Ngoc", "Tuan Anh", "Kim Oanh"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(7);
+    private GuestDAO indexed;
+    private ColumnarGuestDAO columnar;
+
+    @Before
+    public void setUp() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            // Stored stays may have begun long ago, some before the calendar starts
+            LocalDate start = i < 40
+                    ? CALENDAR_START.minusDays(random.nextInt(30))
+                    : LocalDate.now().plusDays(random.nextInt(500) - 100);
+            lines.add(Guest.restore(String.format("1000000%05d", i), randomName(), LocalDate.of(1990, 1, 1).plusDays(i),
+                    i % 2 == 0 ? "Male" : "Female", randomPhone(), roomId(random.nextInt(ROOMS)), 1 + random.nextInt(25),
+                    start, random.nextInt(3) == 0 ? randomName() : "").toString());
+        }
+        indexed = new GuestDAO(write("indexed", lines).getPath());
+        columnar = new ColumnarGuestDAO(write("columnar", lines).getPath());
+    }
+
+    @Test
+    public void storesAgreeAfterLoadBookingsAndReload() throws Exception {
+        assertEquals(0, indexed.getLoadErrors().size());
+        assertEquals(0, columnar.getLoadErrors().size());
+        assertSameAnswers("loaded");
+
+        List<Guest> guests = new ArrayList<>(indexed.getGuests());
+        for (int i = 0; i < 3000; i++) {
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                Guest guest = guests.get(random.nextInt(guests.size()));
+                assertEquals("cancel " + guest, outcome(() -> {
+                    indexed.removeGuest(guest);
+                    return true;
+                }), outcome(() -> {
+                    columnar.removeGuest(guest);
+                    return true;
+                }));
+            } else {
+                String nationalID = operation == 1
+                        ? String.format("9000000%05d", i)
+                        : guests.get(random.nextInt(guests.size())).getNationalID();
+                Guest guest = new Guest(nationalID, randomName(), LocalDate.of(1990, 1, 1), "Female", randomPhone(),
+                        roomId(random.nextInt(ROOMS)), 1 + random.nextInt(20), LocalDate.now().plusDays(random.nextInt(400)),
+                        random.nextBoolean() ? randomName() : "");
+                if (operation == 1) {
+                    assertEquals("book " + guest, outcome(() -> indexed.bookGuest(guest)), outcome(() -> columnar.bookGuest(guest)));
+                } else {
+                    assertEquals("rebook " + guest, outcome(() -> indexed.rebookGuest(guest)), outcome(() -> columnar.rebookGuest(guest)));
+                }
+            }
+        }
+        assertSameAnswers("after bookings");
+
+        indexed.saveGuestsListToFile();
+        columnar.saveGuestsListToFile();
+        indexed.flush();
+        columnar.flush();
+        indexed = new GuestDAO(new File(folder.getRoot(), "indexed/Guest_List.txt").getPath());
+        columnar = new ColumnarGuestDAO(new File(folder.getRoot(), "columnar/Guest_List.txt").getPath());
+        assertSameAnswers("reloaded");
+    }
+
+    // The first days of the calendar, stays crossing a month end, and a guest's own stay left
+    // out of the check, in both stores
+    @Test
+    public void storesHandleTheCalendarEdges() throws Exception {
+        LocalDate month = LocalDate.now().plusMonths(2).withDayOfMonth(1);
+        List<String> lines = Arrays.asList(
+                stored(1, "R201", LocalDate.of(1999, 12, 28), 10),
+                stored(2, "R201", LocalDate.of(2000, 1, 9), 3),
+                stored(3, "R201", LocalDate.of(1999, 11, 1), 5),
+                stored(4, "R202", month.minusDays(3), 7),
+                stored(5, "R202", month.plusDays(6), 2));
+        IGuest[] stores = {new GuestDAO(write("edges-indexed", lines).getPath()),
+            new ColumnarGuestDAO(write("edges-columnar", lines).getPath())};
+        for (IGuest store : stores) {
+            String name = store.getClass().getSimpleName();
+            // Stay 1 runs from 28/12/1999 to 06/01/2000, stay 2 from 09/01 to 11/01/2000
+            assertTrue(name, store.hasOverlappingStay("R201", CALENDAR_START, 1, null));
+            assertFalse(name, store.hasOverlappingStay("R201", LocalDate.of(2000, 1, 7), 2, null));
+            assertTrue(name, store.hasOverlappingStay("R201", LocalDate.of(2000, 1, 7), 3, null));
+            assertFalse(name, store.hasOverlappingStay("r201", CALENDAR_START, 8, "100000000001"));
+            assertFalse(name, store.isRoomFree("R201", CALENDAR_START, CALENDAR_START));
+            assertEquals(name, Arrays.asList(LocalDate.of(2000, 1, 7), LocalDate.of(2000, 1, 12)),
+                    store.findFreeWindows("R201", CALENDAR_START, 2, 3, null));
+            assertEquals(name, Arrays.asList(LocalDate.of(2000, 1, 12)),
+                    store.findFreeWindows("R201", CALENDAR_START, 3, 3, null));
+            assertEquals(name, Arrays.asList(CALENDAR_START, LocalDate.of(2000, 1, 12)),
+                    store.findFreeWindows("R201", CALENDAR_START, 8, 3, "100000000001"));
+            assertEquals(name, 18, store.getRentalDaysOfRoom("R201"));
+            assertEquals(name, 5, store.getRentalDaysOfRoomInMonth("R201", YearMonth.of(1999, 11)));
+            assertEquals(name, 10, store.getRentalDaysOfRoomInMonth("R201", YearMonth.of(1999, 12)));
+            assertEquals(name, 3, store.getRentalDaysOfRoomInMonth("R201", YearMonth.of(2000, 1)));
+
+            // Stay 4 holds the last three days of the month before and the first four of the
+            // month, stay 5 the seventh and eighth
+            assertEquals(name, 7, store.getRentalDaysOfRoomInMonth("R202", YearMonth.from(month.minusDays(3))));
+            assertEquals(name, 2, store.getRentalDaysOfRoomInMonth("R202", YearMonth.from(month)));
+            assertFalse(name, store.isRoomFree("R202", month.minusDays(1), month));
+            assertFalse(name, store.isRoomFree("R202", month.plusDays(3), month.plusDays(4)));
+            assertTrue(name, store.isRoomFree("R202", month.plusDays(4), month.plusDays(5)));
+            assertEquals(name, Arrays.asList(month.minusDays(5), month.plusDays(4), month.plusDays(8)),
+                    store.findFreeWindows("R202", month.minusDays(5), 2, 3, null));
+            assertEquals(name, Arrays.asList(month.minusDays(5), month.plusDays(8)),
+                    store.findFreeWindows("R202", month.minusDays(5), 2, 3, "100000000004"));
+            assertEquals(name, Arrays.asList(month.plusDays(8)),
+                    store.findFreeWindows("R202", month, 3, 3, null));
+
+            // Moving stay 4 into the gap leaves its old days free
+            assertTrue(name, store.rebookGuest(guest(4, "R202", month.plusDays(4), 2)));
+            assertTrue(name, store.isRoomFree("R202", month.minusDays(3), month.plusDays(3)));
+            assertFalse(name, store.rebookGuest(guest(5, "R202", month.plusDays(5), 2)));
+            assertTrue(name, store.rebookGuest(guest(5, "R202", month.plusDays(6), 3)));
+            assertEquals(name, Arrays.asList(month.minusDays(5), month.plusDays(9)),
+                    store.findFreeWindows("R202", month.minusDays(5), 2, 3, null));
+            assertEquals(name, 0, store.getRentalDaysOfRoomInMonth("R202", YearMonth.from(month.minusDays(3))));
+            assertEquals(name, 5, store.getRentalDaysOfRoomInMonth("R202", YearMonth.from(month)));
+        }
+    }
+
+    // Every query on random rooms, dates and excluded guests. Days before the calendar start
+    // are not tracked, so queries start on it at the earliest.
+    private void assertSameAnswers(String stage) throws Exception {
+        List<Guest> guests = indexed.getGuests();
+        assertEquals(stage, text(guests), text(columnar.getGuests()));
+        Map<String, List<Guest>> guestsByRoom = new HashMap<>();
+        for (Guest guest : guests) {
+            guestsByRoom.computeIfAbsent(guest.getDesiredRoomID().toUpperCase(), k -> new ArrayList<>()).add(guest);
+        }
+        for (int i = 0; i < 2000; i++) {
+            String roomId = roomId(random.nextInt(ROOMS + 2));
+            if (random.nextBoolean()) {
+                roomId = roomId.toLowerCase();
+            }
+            LocalDate start = random.nextInt(10) == 0
+                    ? CALENDAR_START.plusDays(random.nextInt(40))
+                    : LocalDate.now().plusDays(random.nextInt(520) - 110);
+            int days = 1 + random.nextInt(25);
+            LocalDate end = start.plusDays(days - 1);
+            int limit = 1 + random.nextInt(4);
+            List<Guest> roomGuests = guestsByRoom.getOrDefault(roomId.toUpperCase(), new ArrayList<>());
+            // Mostly a guest of the room itself, whose stay is then left out of the check
+            String excluded = null;
+            int exclusion = random.nextInt(4);
+            if (exclusion == 0 && !roomGuests.isEmpty()) {
+                excluded = roomGuests.get(random.nextInt(roomGuests.size())).getNationalID();
+            } else if (exclusion == 1) {
+                excluded = guests.get(random.nextInt(guests.size())).getNationalID();
+            }
+            String query = stage + " " + roomId + " " + start + " " + days + " " + excluded;
+
+            boolean overlap = indexed.hasOverlappingStay(roomId, start, days, excluded);
+            assertEquals(query, overlap, columnar.hasOverlappingStay(roomId, start, days, excluded));
+            boolean free = indexed.isRoomFree(roomId, start, end);
+            assertEquals(query, free, columnar.isRoomFree(roomId, start, end));
+            List<LocalDate> windows = indexed.findFreeWindows(roomId, start, days, limit, excluded);
+            assertEquals(query, windows, columnar.findFreeWindows(roomId, start, days, limit, excluded));
+            assertEquals(query, scanOverlap(roomGuests, start, end, excluded), overlap);
+            assertEquals(query, !scanOverlap(roomGuests, start, end, null), free);
+            assertEquals(query, scanFreeWindows(roomGuests, start, days, limit, excluded), windows);
+
+            YearMonth month = YearMonth.from(start);
+            long monthDays = 0;
+            long totalDays = 0;
+            for (Guest guest : roomGuests) {
+                totalDays += guest.getNumberOfRentalDays();
+                if (YearMonth.from(guest.getStartDate()).equals(month)) {
+                    monthDays += guest.getNumberOfRentalDays();
+                }
+            }
+            assertEquals(query, totalDays, indexed.getRentalDaysOfRoom(roomId));
+            assertEquals(query, totalDays, columnar.getRentalDaysOfRoom(roomId));
+            assertEquals(query, monthDays, indexed.getRentalDaysOfRoomInMonth(roomId, month));
+            assertEquals(query, monthDays, columnar.getRentalDaysOfRoomInMonth(roomId, month));
+        }
+
+        Comparator<Guest> byArrival = Comparator.comparing(Guest::getStartDate).thenComparing(Guest::getNationalID);
+        for (int i = 0; i < 300; i++) {
+            Guest sample = guests.get(random.nextInt(guests.size()));
+            assertEquals(stage, String.valueOf(sample), String.valueOf(columnar.getGuestById(sample.getNationalID())));
+
+            List<Guest> byPhone = new ArrayList<>();
+            List<Guest> byRoom = new ArrayList<>();
+            List<Guest> arriving = new ArrayList<>();
+            LocalDate from = sample.getStartDate().minusDays(random.nextInt(3));
+            LocalDate to = from.plusDays(random.nextInt(4));
+            for (Guest guest : guests) {
+                if (guest.getPhoneNumber().equals(sample.getPhoneNumber())) {
+                    byPhone.add(guest);
+                }
+                if (guest.getDesiredRoomID().equalsIgnoreCase(sample.getDesiredRoomID())) {
+                    byRoom.add(guest);
+                }
+                if (!guest.getStartDate().isBefore(from) && !guest.getStartDate().isAfter(to)) {
+                    arriving.add(guest);
+                }
+            }
+            byRoom.sort(byArrival);
+            arriving.sort(byArrival);
+            String roomId = sample.getDesiredRoomID().toLowerCase();
+            assertEquals(stage, text(byPhone), text(indexed.findGuestsByPhoneNumber(sample.getPhoneNumber())));
+            assertEquals(stage, text(byPhone), text(columnar.findGuestsByPhoneNumber(sample.getPhoneNumber())));
+            assertEquals(stage, text(byRoom), text(indexed.findGuestsByRoom(roomId)));
+            assertEquals(stage, text(byRoom), text(columnar.findGuestsByRoom(roomId)));
+            assertEquals(stage, text(arriving), text(indexed.findGuestsArrivingBetween(from, to)));
+            assertEquals(stage, text(arriving), text(columnar.findGuestsArrivingBetween(from, to)));
+        }
+
+        for (int i = 0; i < 300; i++) {
+            String query = randomQuery(guests.get(random.nextInt(guests.size())));
+            int limit = random.nextInt(4) == 0 ? Integer.MAX_VALUE : 1 + random.nextInt(12);
+            String expected = text(scanNames(guests, query, limit));
+            assertEquals(stage + " " + query, expected, text(indexed.searchGuestsByName(query, limit)));
+            assertEquals(stage + " " + query, expected, text(columnar.searchGuestsByName(query, limit)));
+        }
+        assertEquals(stage, null, columnar.getGuestById("000000000000"));
+        assertEquals(stage, 0, columnar.findGuestsByRoom("Z9999").size());
+    }
+
+    // The guests passed in are those of one room
+    private static boolean scanOverlap(List<Guest> guests, LocalDate start, LocalDate end, String excluded) {
+        for (Guest guest : guests) {
+            if (!guest.getNationalID().equals(excluded)
+                    && !guest.getStartDate().isAfter(end) && !lastDay(guest).isBefore(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The free run holding start if it is long enough, then the start of each later free run
+    // that is; the run after the last stay never ends
+    private static List<LocalDate> scanFreeWindows(List<Guest> guests, LocalDate start, int days, int limit,
+            String excluded) {
+        List<long[]> stays = new ArrayList<>();
+        for (Guest guest : guests) {
+            if (!guest.getNationalID().equals(excluded)) {
+                stays.add(new long[]{guest.getStartDate().toEpochDay(), lastDay(guest).toEpochDay()});
+            }
+        }
+        stays.sort(Comparator.comparingLong(stay -> stay[0]));
+        List<LocalDate> windows = new ArrayList<>();
+        long free = start.toEpochDay();
+        for (long[] stay : stays) {
+            if (stay[0] - free >= days) {
+                windows.add(LocalDate.ofEpochDay(free));
+                if (windows.size() == limit) {
+                    return windows;
+                }
+            }
+            free = Math.max(free, stay[1] + 1);
+        }
+        windows.add(LocalDate.ofEpochDay(free));
+        return windows;
+    }
+
+    // Guests ranked by their better matching name: the whole name, a name starting with the
+    // query, names whose words start with the query's words in order, then names whose words
+    // start a few typos away from the query; then fewer typos, shorter and alphabetical names,
+    // and national IDs
+    private static List<Guest> scanNames(List<Guest> guests, String query, int limit) {
+        String text = String.join(" ", query.trim().toLowerCase().split("\\s+"));
+        int letters = text.replace(" ", "").length();
+        int typos = letters < 4 ? 0 : letters < 8 ? 1 : 2;
+        // Rank, typos, length and normalized name, worked out once per name; null if it
+        // cannot match
+        Map<String, Object[]> ranked = new HashMap<>();
+        List<Object[]> matches = new ArrayList<>();
+        for (Guest guest : guests) {
+            Object[] best = null;
+            for (String name : new String[]{guest.getFullName(), guest.getNameOfCoTenant()}) {
+                if (!ranked.containsKey(name)) {
+                    String normalized = String.join(" ", name.trim().toLowerCase().split("\\s+"));
+                    Object[] rankedName = null;
+                    if (letters >= 2 && normalized.length() >= 2 && !normalized.equals("none")) {
+                        int rank = normalized.equals(text) ? 0 : normalized.startsWith(text) ? 1
+                                : startsWords(normalized, text) ? 2 : 3;
+                        rankedName = new Object[]{rank, rank == 3 ? typoDistance(normalized, text) : 0,
+                            normalized.length(), normalized};
+                    }
+                    ranked.put(name, rankedName);
+                }
+                Object[] match = ranked.get(name);
+                if (match != null && (Integer) match[1] <= typos && (best == null || compareMatches(match, best) < 0)) {
+                    best = match;
+                }
+            }
+            if (best != null) {
+                matches.add(new Object[]{best, guest});
+            }
+        }
+        matches.sort((first, second) -> {
+            int order = compareMatches((Object[]) first[0], (Object[]) second[0]);
+            return order != 0 ? order : ((Guest) first[1]).getNationalID().compareTo(((Guest) second[1]).getNationalID());
+        });
+        List<Guest> found = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            found.add((Guest) matches.get(i)[1]);
+        }
+        return found;
+    }
+
+    private static int compareMatches(Object[] first, Object[] second) {
+        for (int i = 0; i < 3; i++) {
+            int order = Integer.compare((Integer) first[i], (Integer) second[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return ((String) first[3]).compareTo((String) second[3]);
+    }
+
+    private static boolean startsWords(String name, String text) {
+        String[] nameWords = name.split(" ");
+        int next = 0;
+        for (String word : text.split(" ")) {
+            while (next < nameWords.length && !nameWords[next].startsWith(word)) {
+                next++;
+            }
+            if (next++ == nameWords.length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Fewest inserts, deletes, replacements and swaps of two neighbours turning the query into
+    // the start of the name from one of its words, from the full table
+    private static int typoDistance(String name, String text) {
+        int best = Integer.MAX_VALUE;
+        for (int start = 0; start < name.length(); start++) {
+            if (start > 0 && name.charAt(start - 1) != ' ') {
+                continue;
+            }
+            String rest = name.substring(start);
+            int[][] table = new int[rest.length() + 1][text.length() + 1];
+            for (int i = 0; i <= rest.length(); i++) {
+                for (int j = 0; j <= text.length(); j++) {
+                    if (i == 0 || j == 0) {
+                        table[i][j] = i + j;
+                        continue;
+                    }
+                    int cost = rest.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                    table[i][j] = Math.min(Math.min(table[i - 1][j] + 1, table[i][j - 1] + 1), table[i - 1][j - 1] + cost);
+                    if (i > 1 && j > 1 && rest.charAt(i - 1) == text.charAt(j - 2) && rest.charAt(i - 2) == text.charAt(j - 1)) {
+                        table[i][j] = Math.min(table[i][j], table[i - 2][j - 2] + 1);
+                    }
+                }
+                best = Math.min(best, table[i][text.length()]);
+            }
+        }
+        return best;
+    }
+
+    // Part of one of the guest's names as a front desk might type it: the whole name, its
+    // start, the start of some of its words, or a word with a typo or two; in any case
+    private String randomQuery(Guest guest) {
+        String name = guest.getNameOfCoTenant().isEmpty() || random.nextBoolean()
+                ? guest.getFullName() : guest.getNameOfCoTenant();
+        String[] words = name.split(" ");
+        String query;
+        switch (random.nextInt(5)) {
+            case 0:
+                query = name;
+                break;
+            case 1:
+                query = name.substring(0, 2 + random.nextInt(name.length() - 1));
+                break;
+            case 2:
+                StringBuilder starts = new StringBuilder();
+                for (String word : words) {
+                    if (random.nextInt(3) > 0) {
+                        starts.append(word, 0, 1 + random.nextInt(word.length())).append(random.nextBoolean() ? " " : "  ");
+                    }
+                }
+                query = starts.length() == 0 ? words[0] : starts.toString();
+                break;
+            default:
+                StringBuilder typed = new StringBuilder(random.nextBoolean() ? words[random.nextInt(words.length)] : name);
+                for (int typo = 1 + random.nextInt(2); typo > 0 && typed.length() > 2; typo--) {
+                    int at = random.nextInt(typed.length() - 1);
+                    char letter = (char) ('a' + random.nextInt(26));
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            typed.setCharAt(at, letter);
+                            break;
+                        case 1:
+                            typed.insert(at, letter);
+                            break;
+                        case 2:
+                            typed.deleteCharAt(at);
+                            break;
+                        default:
+                            char swapped = typed.charAt(at);
+                            typed.setCharAt(at, typed.charAt(at + 1));
+                            typed.setCharAt(at + 1, swapped);
+                    }
+                }
+                query = typed.toString();
+        }
+        return random.nextBoolean() ? query.toUpperCase() : query;
+    }
+
+    private static String stored(int number, String roomId, LocalDate startDate, int days) {
+        return Guest.restore(String.format("1000000%05d", number), "Tran Van Binh", LocalDate.of(1980, 5, 1), "Male",
+                "0346427469", roomId, days, startDate, "").toString();
+    }
+
+    private static Guest guest(int number, String roomId, LocalDate startDate, int days) throws Exception {
+        return new Guest(String.format("1000000%05d", number), "Tran Van Binh", LocalDate.of(1980, 5, 1), "Male",
+                "0346427469", roomId, days, startDate, "");
+    }
+
+    private static LocalDate lastDay(Guest guest) {
+        return guest.getStartDate().plusDays(guest.getNumberOfRentalDays() - 1);
+    }
+
+    private static Object outcome(Action action) {
+        try {
+            return action.run();
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String text(List<Guest> guests) {
+        StringBuilder text = new StringBuilder();
+        for (Guest guest : guests) {
+            text.append(guest).append('\n');
+        }
+        return text.toString();
+    }
+
+    private File write(String directory, List<String> lines) throws Exception {
+        File file = new File(folder.newFolder(directory), "Guest_List.txt");
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private String randomName() {
+        return FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)] + " " + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+    }
+
+    // Few enough numbers that several guests share one
+    private String randomPhone() {
+        return String.format("03464274%02d", random.nextInt(100));
+    }
+
+    private static String roomId(int number) {
+        return "R" + (101 + number);
+    }
+
+    @FunctionalInterface
+    private interface Action {
+
+        Object run() throws Exception;
+    }
+}